@@ -0,0 +1,79 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// select() OVER 100K BOOKS: A NARROW PRICE RANGE (SORTED INDEX SEEK), A WIDE ONE (COLUMN SCAN),
+// A CATEGORY + YEAR FILTER, A CATEGORY + PRICE + YEAR FILTER, AND A NARROW RANGE WITH AN UNINDEXED
+// TAIL OF RECENT UPDATES. ColumnarCatalogSqlBenchmark RUNS THE SAME FILTERS AS SQL ON THE SAME ROWS.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarCatalogBenchmark {
+
+    static final String[] CATEGORIES = {"Fiction", "Science", "History", "Poetry", "Children", "Travel"};
+
+    @Param("100000")
+    public int books;
+
+    private ColumnarCatalog catalog;
+    private ColumnarCatalog catalogWithTail;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<CatalogEntry> entries = new ArrayList<>(books);
+        for (int bookId = 1; bookId <= books; bookId++) {
+            entries.add(entry(random, bookId));
+        }
+        catalog = new ColumnarCatalog();
+        catalog.rebuild(entries);
+
+        catalogWithTail = new ColumnarCatalog();
+        catalogWithTail.rebuild(entries);
+        // STAYS BELOW THE COMPACTION THRESHOLD, SO THESE ROWS ARE SCANNED ON EVERY SELECT
+        for (int i = 0; i < 1_000; i++) {
+            catalogWithTail.put(entry(random, 1 + random.nextInt(books)));
+        }
+    }
+
+    @Benchmark
+    public BitSet narrowPriceRange() {
+        return catalog.select(null, null, null, new BigDecimal("10.00"), new BigDecimal("10.50"));
+    }
+
+    @Benchmark
+    public BitSet widePriceRange() {
+        return catalog.select(null, null, null, new BigDecimal("10.00"), new BigDecimal("150.00"));
+    }
+
+    @Benchmark
+    public BitSet categoryAndYears() {
+        return catalog.select("Science", 1990, 2010, null, null);
+    }
+
+    @Benchmark
+    public BitSet categoryPriceAndYear() {
+        return catalog.select("Science", 1990, null, new BigDecimal("10.00"), new BigDecimal("50.00"));
+    }
+
+    @Benchmark
+    public BitSet narrowPriceRangeWithTail() {
+        return catalogWithTail.select(null, null, null, new BigDecimal("10.00"), new BigDecimal("10.50"));
+    }
+
+    static CatalogEntry entry(Random random, int bookId) {
+        return new CatalogEntry(bookId, "Title " + bookId, "Publisher", CATEGORIES[random.nextInt(CATEGORIES.length)],
+                1950 + random.nextInt(75), BigDecimal.valueOf(100 + random.nextInt(19_900), 2),
+                "isbn-" + bookId, 0, List.of());
+    }
+}
@@ -0,0 +1,127 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// SQL BASELINE FOR ColumnarCatalogBenchmark: THE SAME 100K ROWS (SAME SEED) IN A TEMPORARY TABLE
+// WITH THE SAME INDEXES AS Books (PRIMARY KEY AND idx_books_category), QUERIED WITH THE SAME
+// FILTERS, RESULT COLLECTED INTO A BitSet. NEEDS THE LOCAL MYSQL; THE CONNECTION DEFAULTS TO THE
+// ONE IN application.yml AND CAN BE OVERRIDDEN FOR THE FORKED JVM, E.G.
+// -Djmh.args="ColumnarCatalog -jvmArgsAppend -Djmh.jdbc.url=jdbc:mysql://..." (ALSO .user AND .password).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarCatalogSqlBenchmark {
+
+    @Param("100000")
+    public int books;
+
+    private Connection connection;
+    private PreparedStatement priceRange;
+    private PreparedStatement categoryAndYears;
+    private PreparedStatement categoryPriceAndYear;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("jmh.jdbc.url",
+                        "jdbc:mysql://localhost:3306/book_store?useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true"),
+                System.getProperty("jmh.jdbc.user", "root"),
+                System.getProperty("jmh.jdbc.password", "StrongPassword123")
+        );
+        try (Statement statement = connection.createStatement()) {
+            // TEMPORARY: ONLY THIS CONNECTION SEES IT AND IT IS DROPPED WITH THE CONNECTION
+            statement.execute("""
+                    CREATE TEMPORARY TABLE BenchBooks (
+                        BookID          int            NOT NULL PRIMARY KEY,
+                        Title           varchar(255)   NOT NULL,
+                        PublicationYear int            NULL,
+                        SellingPrice    decimal(10, 2) NULL,
+                        Category        varchar(100)   NULL,
+                        INDEX idx_books_category (Category)
+                    )
+                    """);
+        }
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO BenchBooks (BookID, Title, PublicationYear, SellingPrice, Category) VALUES (?, ?, ?, ?, ?)")) {
+            for (int bookId = 1; bookId <= books; bookId++) {
+                CatalogEntry entry = ColumnarCatalogBenchmark.entry(random, bookId);
+                insert.setInt(1, entry.getBookId());
+                insert.setString(2, entry.getTitle());
+                insert.setInt(3, entry.getPublicationYear());
+                insert.setBigDecimal(4, entry.getSellingPrice());
+                insert.setString(5, entry.getCategory());
+                insert.addBatch();
+                if (bookId % 1_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE BenchBooks");
+        }
+
+        priceRange = connection.prepareStatement(
+                "SELECT BookID FROM BenchBooks WHERE SellingPrice BETWEEN ? AND ?");
+        categoryAndYears = connection.prepareStatement(
+                "SELECT BookID FROM BenchBooks WHERE Category = ? AND PublicationYear BETWEEN ? AND ?");
+        categoryPriceAndYear = connection.prepareStatement(
+                "SELECT BookID FROM BenchBooks WHERE Category = ? AND SellingPrice BETWEEN ? AND ? AND PublicationYear >= ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public BitSet narrowPriceRange() throws SQLException {
+        priceRange.setBigDecimal(1, new BigDecimal("10.00"));
+        priceRange.setBigDecimal(2, new BigDecimal("10.50"));
+        return bookIds(priceRange);
+    }
+
+    @Benchmark
+    public BitSet widePriceRange() throws SQLException {
+        priceRange.setBigDecimal(1, new BigDecimal("10.00"));
+        priceRange.setBigDecimal(2, new BigDecimal("150.00"));
+        return bookIds(priceRange);
+    }
+
+    @Benchmark
+    public BitSet categoryAndYears() throws SQLException {
+        categoryAndYears.setString(1, "Science");
+        categoryAndYears.setInt(2, 1990);
+        categoryAndYears.setInt(3, 2010);
+        return bookIds(categoryAndYears);
+    }
+
+    @Benchmark
+    public BitSet categoryPriceAndYear() throws SQLException {
+        categoryPriceAndYear.setString(1, "Science");
+        categoryPriceAndYear.setBigDecimal(2, new BigDecimal("10.00"));
+        categoryPriceAndYear.setBigDecimal(3, new BigDecimal("50.00"));
+        categoryPriceAndYear.setInt(4, 1990);
+        return bookIds(categoryPriceAndYear);
+    }
+
+    private static BitSet bookIds(PreparedStatement query) throws SQLException {
+        BitSet bookIds = new BitSet();
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                bookIds.set(rs.getInt(1));
+            }
+        }
+        return bookIds;
+    }
+}
@@ -0,0 +1,55 @@
+package org.bookstore.bookstore.utils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// TOTAL OF A CART: THE OLD BigDecimal PATH (SUBTOTAL THROUGH double, ONE NEW BigDecimal PER ADDITION)
+// AGAINST Money IN long CENTS. RUN WITH -prof gc TO SEE THE ALLOCATION PER CART AS WELL.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private BigDecimal[] prices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(19_900), 2);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal subTotal = BigDecimal.valueOf(prices[i].doubleValue()).multiply(BigDecimal.valueOf(quantities[i]));
+            total = total.add(subTotal);
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal moneyTotal() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(Money.of(prices[i]).times(quantities[i]));
+        }
+        return total.toBigDecimal();
+    }
+}
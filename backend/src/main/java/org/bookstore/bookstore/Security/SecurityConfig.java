@@ -1,5 +1,6 @@
 package org.bookstore.bookstore.Security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,6 +33,10 @@ public class SecurityConfig {
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (/books/export, SSE) finish on an async dispatch that
+                        // carries no token, the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints
                         .requestMatchers(
                                 "/auth/login",
@@ -47,6 +52,7 @@ public class SecurityConfig {
                         .requestMatchers("/books/admin/**").hasRole("ADMIN")
                         .requestMatchers("/publisherOrders/admin/**").hasRole("ADMIN")
                         .requestMatchers("/reports/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/cart/admin/**").hasRole("ADMIN")
 
                         // Authenticated users
                         .anyRequest().authenticated()
@@ -78,6 +84,7 @@ public class SecurityConfig {
         configuration.addAllowedOrigin("http://localhost:5174");
         configuration.addAllowedMethod("*");
         configuration.addAllowedHeader("*");
+        configuration.addExposedHeader("X-Next-Cursor");
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,26 +1,94 @@
 package org.bookstore.bookstore.controllers;
 
+import org.bookstore.bookstore.dtos.BookBatchResponse;
+import org.bookstore.bookstore.dtos.BookChangesResponse;
+import org.bookstore.bookstore.dtos.BookImportReport;
+import org.bookstore.bookstore.dtos.BookPage;
+import org.bookstore.bookstore.dtos.BookResponse;
+import org.bookstore.bookstore.dtos.BookSearchCriteria;
+import org.bookstore.bookstore.dtos.FacetedSearchResponse;
+import org.bookstore.bookstore.dtos.StockAdjustment;
+import org.bookstore.bookstore.dtos.StockAdjustmentReport;
 import org.bookstore.bookstore.entities.Book;
+import org.bookstore.bookstore.services.BookChangeService;
+import org.bookstore.bookstore.services.BookImportService;
 import org.bookstore.bookstore.services.BookService;
+import org.bookstore.bookstore.services.Catalog.AutocompleteIndex;
+import org.bookstore.bookstore.services.CatalogExportService;
+import org.bookstore.bookstore.services.RecommendationService;
+import org.bookstore.bookstore.services.StockStreamService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
 @RequestMapping("/books")
 public class BookController {
 
+    // OPAQUE CURSOR FOR THE NEXT PAGE, ABSENT ON THE LAST PAGE
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final BookService bookService;
+    private final CatalogExportService catalogExportService;
+    private final BookImportService bookImportService;
+    private final RecommendationService recommendationService;
+    private final BookChangeService bookChangeService;
+    private final StockStreamService stockStreamService;
 
-    public BookController(BookService bookService) {
+    public BookController(
+            BookService bookService,
+            CatalogExportService catalogExportService,
+            BookImportService bookImportService,
+            RecommendationService recommendationService,
+            BookChangeService bookChangeService,
+            StockStreamService stockStreamService
+    ) {
         this.bookService = bookService;
+        this.catalogExportService = catalogExportService;
+        this.bookImportService = bookImportService;
+        this.recommendationService = recommendationService;
+        this.bookChangeService = bookChangeService;
+        this.stockStreamService = stockStreamService;
     }
 
-    // GET ALL BOOKS
+    // GET ALL BOOKS (PAGINATED, sort = id | title)
     @GetMapping("/all")
-    public List<Book> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<List<BookResponse>> getAllBooks(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return page(bookService.getBooks(sort, cursor, limit));
+    }
+
+    // EXPORT THE CATALOG AS NEWLINE-DELIMITED JSON (since = ISO DATE-TIME, gzip = COMPRESS THE STREAM)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(NDJSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> catalogExportService.exportBooks(out, since, gzip));
     }
 
     // ADD A NEW BOOK
@@ -29,6 +97,16 @@ public class BookController {
         bookService.addBook(book);
     }
 
+    // BULK IMPORT BOOKS FROM A CSV OR JSON FILE (UPSERT BY ISBN). STOCK OF EXISTING BOOKS IS ONLY
+    // OVERWRITTEN WITH setStock=true
+    @PostMapping("/admin/import")
+    public BookImportReport importBooks(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "false") boolean setStock
+    ) {
+        return bookImportService.importBooks(file, setStock);
+    }
+
     // UPDATE BOOK INFORMATION
     @PutMapping("/admin/update")
     public void updateBook(@RequestBody Book book) {
@@ -41,39 +119,181 @@ public class BookController {
         bookService.updateBookStock(bookId, quantity);
     }
 
+    // UPDATE THE STOCK OF MANY BOOKS IN ONE TRANSACTION
+    @PutMapping("/admin/updateStock")
+    public StockAdjustmentReport updateStocks(@RequestBody List<StockAdjustment> adjustments) {
+        return bookService.updateBookStocks(adjustments);
+    }
+
     // DELETE BOOK
     @DeleteMapping("/admin/delete/{bookId}")
     public void deleteBook(@PathVariable Integer bookId) {
         bookService.deleteBook(bookId);
     }
 
+    // BOOK DETAIL CACHE COUNTERS
+    @GetMapping("/admin/cache/stats")
+    public Map<String, Long> cacheStats() {
+        return bookService.getCacheStats();
+    }
+
+    // MANY BOOKS IN ONE REQUEST (ids=1,2,3 AND/OR isbns=...), IN REQUEST ORDER, WITH THE KEYS NOT FOUND
+    @GetMapping("/batch")
+    public BookBatchResponse findBooks(
+            @RequestParam(required = false) List<Integer> ids,
+            @RequestParam(required = false) List<String> isbns,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return bookService.findBooks(ids, isbns);
+    }
+
+    // DELTA SYNC: BOOKS INSERTED, UPDATED, RESTOCKED OR DELETED AFTER SEQUENCE since
+    // (NO since = JUST THE CURRENT SEQUENCE, TAKE IT BEFORE LOADING /books/all)
+    @GetMapping("/changes")
+    public BookChangesResponse changes(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return bookChangeService.getChanges(since, limit);
+    }
+
+    // LIVE STOCK OF THE GIVEN BOOKS (ids=1,2,3) AS SERVER-SENT "stock" EVENTS
+    @GetMapping(value = "/stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock(@RequestParam List<Integer> ids) {
+        return stockStreamService.subscribe(ids);
+    }
+
+    // "CUSTOMERS ALSO BOUGHT": BOOKS MOST OFTEN ORDERED TOGETHER WITH THIS ONE
+    @GetMapping("/{bookId}/recommendations")
+    public List<BookResponse> recommendations(
+            @PathVariable Integer bookId,
+            @RequestParam(required = false) Integer limit
+    ) {
+        return recommendationService.recommend(bookId, limit);
+    }
+
     // SEARCH BOOK BY ISBN
     @GetMapping("/search/isbn/{isbn}")
-    public Optional<Book> searchByIsbn(@PathVariable String isbn) {
+    public Optional<BookResponse> searchByIsbn(@PathVariable String isbn, WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
         return bookService.searchBookByIsbn(isbn);
     }
 
     // SEARCH BOOK BY TITLE
     @GetMapping("/search/title/{title}")
-    public List<Book> searchByTitle(@PathVariable String title) {
-        return bookService.searchBooksByTitle(title);
+    public ResponseEntity<List<BookResponse>> searchByTitle(
+            @PathVariable String title,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return page(bookService.searchBooksByTitle(title, cursor, limit));
     }
 
     // SEARCH BOOK BY CATEGORY
     @GetMapping("/search/category/{category}")
-    public List<Book> searchByCategory(@PathVariable String category) {
-        return bookService.searchBooksByCategory(category);
+    public ResponseEntity<List<BookResponse>> searchByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return page(bookService.searchBooksByCategory(category, cursor, limit));
     }
 
     // SEARCH BOOK BY AUTHOR
     @GetMapping("/search/author/{author}")
-    public List<Book> searchByAuthor(@PathVariable String author) {
-        return bookService.searchBooksByAuthor(author);
+    public ResponseEntity<List<BookResponse>> searchByAuthor(
+            @PathVariable String author,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return page(bookService.searchBooksByAuthor(author, cursor, limit));
     }
 
     // SEARCH BOOK BY PUBLISHER
     @GetMapping("/search/publisher/{publisher}")
-    public List<Book> searchByPublisher(@PathVariable String publisher) {
-        return bookService.searchBooksByPublisher(publisher);
+    public ResponseEntity<List<BookResponse>> searchByPublisher(
+            @PathVariable String publisher,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return page(bookService.searchBooksByPublisher(publisher, cursor, limit));
+    }
+
+    // SEARCH-BOX SUGGESTIONS FOR WHAT WAS TYPED SO FAR (type = title | author | publisher | all)
+    @GetMapping("/autocomplete")
+    public List<AutocompleteIndex.Suggestion> autocomplete(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "all") String type,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return bookService.autocomplete(q, type, limit);
+    }
+
+    // COMBINED SEARCH: category, publisher, author, yearFrom, yearTo, minPrice, maxPrice
+    // RETURNS ONE PAGE OF BOOKS PLUS FACET COUNTS OVER ALL MATCHES
+    @GetMapping("/search")
+    public FacetedSearchResponse search(
+            BookSearchCriteria criteria,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return bookService.searchBooks(criteria, cursor, limit);
+    }
+
+    // TYPO-TOLERANT SEARCH BY TITLE AND/OR AUTHOR, BEST MATCH FIRST
+    @GetMapping("/search/fuzzy/{query}")
+    public List<BookResponse> fuzzySearch(
+            @PathVariable String query,
+            @RequestParam(defaultValue = "all") String field,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request
+    ) {
+        if (notModified(request)) {
+            return null;
+        }
+        return bookService.fuzzySearchBooks(query, field, limit);
+    }
+
+    // SETS THE CATALOG ETAG AND ANSWERS 304 WITHOUT A QUERY WHEN If-None-Match IS CURRENT
+    private boolean notModified(WebRequest request) {
+        return request.checkNotModified(bookService.getCatalogETag());
+    }
+
+    // BODY STAYS A PLAIN ARRAY SO OLD CLIENTS KEEP WORKING, THE CURSOR GOES IN A HEADER
+    private ResponseEntity<List<BookResponse>> page(BookPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBooks());
     }
 }
\ No newline at end of file
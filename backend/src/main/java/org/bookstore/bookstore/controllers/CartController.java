@@ -2,18 +2,26 @@ package org.bookstore.bookstore.controllers;
 
 import lombok.AllArgsConstructor;
 import org.bookstore.bookstore.dtos.CartDto;
+import org.bookstore.bookstore.dtos.CartOperation;
 import org.bookstore.bookstore.dtos.CheckoutRequest;
 import org.bookstore.bookstore.services.CartService;
 import org.bookstore.bookstore.services.PaymentService;
+import org.bookstore.bookstore.services.Cart.CartSweeper;
+import org.bookstore.bookstore.services.Cart.CartWriteBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @AllArgsConstructor
 @RestController
 @RequestMapping("/cart")
 public class CartController {
 
     private final CartService cartService;
+    private final CartSweeper cartSweeper;
+    private final CartWriteBuffer cartWriteBuffer;
 
     @GetMapping("/{userId}")
     public ResponseEntity<CartDto> viewCart(@PathVariable Integer userId) {
@@ -31,6 +39,15 @@ public class CartController {
         return ResponseEntity.ok().build();
     }
 
+    // ORDERED LIST OF add / decrement / remove STEPS IN ONE TRANSACTION, RETURNS THE UPDATED CART
+    @PostMapping("/{userId}/batch")
+    public ResponseEntity<CartDto> applyBatch(
+            @PathVariable Integer userId,
+            @RequestBody List<CartOperation> operations
+    ) {
+        return ResponseEntity.ok(cartService.applyOperations(userId, operations));
+    }
+
     @DeleteMapping("/{userId}/remove")
     public ResponseEntity<String> removeFromCart(
             @PathVariable Integer userId,
@@ -65,4 +82,16 @@ public class CartController {
         cartService.checkoutCart(userId, credit_card);
         return ResponseEntity.ok("Checkout successful");
     }
+
+    // ABANDONED CART SWEEPER COUNTERS
+    @GetMapping("/admin/sweeper/stats")
+    public Map<String, Long> sweeperStats() {
+        return cartSweeper.stats();
+    }
+
+    // WRITE-BEHIND BUFFER COUNTERS, INCLUDING CARTS DROPPED AFTER THE DATABASE REJECTED THEIR CHANGES
+    @GetMapping("/admin/write-behind/stats")
+    public Map<String, Long> writeBehindStats() {
+        return cartWriteBuffer.stats();
+    }
 }
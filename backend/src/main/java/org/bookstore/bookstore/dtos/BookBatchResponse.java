@@ -0,0 +1,17 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BookBatchResponse {
+    // IN REQUEST ORDER: REQUESTED IDS FIRST, THEN REQUESTED ISBNS, EACH BOOK ONCE
+    private List<BookResponse> books;
+    private List<Integer> missingIds;
+    private List<String> missingIsbns;
+}
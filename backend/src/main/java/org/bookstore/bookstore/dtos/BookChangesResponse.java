@@ -0,0 +1,24 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BookChangesResponse {
+    // PASS AS since ON THE NEXT CALL
+    private long sequence;
+    // MORE CHANGES ARE WAITING, CALL AGAIN RIGHT AWAY
+    private boolean hasMore;
+    // since IS OLDER THAN THE LOG KEEPS, RELOAD /books/all AND START OVER FROM sequence
+    private boolean resyncRequired;
+    // INSERTED OR EDITED BOOKS, CURRENT STATE
+    private List<BookResponse> updated;
+    // BOOKS WHOSE ONLY CHANGE WAS THEIR STOCK
+    private List<BookStockLevel> restocked;
+    private List<Integer> deleted;
+}
@@ -0,0 +1,14 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BookImportError {
+    private long row;
+    private String isbn;
+    private String message;
+}
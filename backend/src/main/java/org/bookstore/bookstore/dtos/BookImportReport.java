@@ -0,0 +1,17 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BookImportReport {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<BookImportError> errors;
+}
@@ -0,0 +1,24 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookImportRow {
+    private String isbn;
+    private String title;
+    private Integer publicationYear;
+    private BigDecimal sellingPrice;
+    private String category;
+    private Integer numberOfBooks;
+    private Integer minimumQuantity;
+    private Integer publisherId;
+    private List<String> authors = new ArrayList<>();
+}
@@ -0,0 +1,15 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BookPage {
+    private List<BookResponse> books;
+    private String nextCursor;
+}
@@ -0,0 +1,64 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bookstore.bookstore.entities.Author;
+import org.bookstore.bookstore.entities.Book;
+import org.bookstore.bookstore.entities.Publisher;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+// FLAT READ MODEL OF A BOOK, SERIALIZING IT NEVER TOUCHES A LAZY ASSOCIATION. IMMUTABLE, THE BOOK
+// DETAIL CACHE HANDS THE SAME INSTANCE TO EVERY CALLER. publisher AND authors KEEP THE SHAPE THE
+// Book ENTITY WAS SERIALIZED WITH, publisherId AND publisherName ARE FLAT SHORTCUTS.
+@Getter
+@AllArgsConstructor
+public class BookResponse {
+    private final Integer bookID;
+    private final String isbn;
+    private final String title;
+    private final Integer publicationYear;
+    private final BigDecimal sellingPrice;
+    private final String category;
+    private final Integer numberOfBooks;
+    private final Integer minimumQuantity;
+    private final Integer publisherId;
+    private final String publisherName;
+    private final PublisherSummary publisher;
+    private final List<AuthorSummary> authors;
+
+    public record PublisherSummary(Integer publisherID, String name, String address, String phone) {
+    }
+
+    public record AuthorSummary(Integer authorID, String name) {
+    }
+
+    // THE BOOK MUST HAVE ITS PUBLISHER AND AUTHORS FETCHED (SEE BookRepository.findDetailsByIds)
+    public static BookResponse from(Book book) {
+        return new BookResponse(
+                book.getBookID(),
+                book.getIsbn(),
+                book.getTitle(),
+                book.getPublicationYear(),
+                book.getSellingPrice(),
+                book.getCategory(),
+                book.getNumberOfBooks(),
+                book.getMinimumQuantity(),
+                book.getPublisher().getPublisherID(),
+                book.getPublisher().getName(),
+                summary(book.getPublisher()),
+                book.getAuthors() == null
+                        ? List.of()
+                        : book.getAuthors().stream()
+                                .sorted(Comparator.comparing(Author::getName))
+                                .map(author -> new AuthorSummary(author.getAuthorID(), author.getName()))
+                                .toList()
+        );
+    }
+
+    private static PublisherSummary summary(Publisher publisher) {
+        return new PublisherSummary(publisher.getPublisherID(), publisher.getName(), publisher.getAddress(), publisher.getPhone());
+    }
+}
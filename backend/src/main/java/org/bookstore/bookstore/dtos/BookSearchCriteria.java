@@ -0,0 +1,20 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class BookSearchCriteria {
+    private String category;
+    private String publisher;
+    private String author;
+    private Integer yearFrom;
+    private Integer yearTo;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
@@ -0,0 +1,13 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BookStockLevel {
+    private Integer bookId;
+    private Integer numberOfBooks;
+}
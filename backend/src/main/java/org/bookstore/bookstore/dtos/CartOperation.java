@@ -0,0 +1,15 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// ONE STEP OF A BATCHED CART EDIT: add (quantity, DEFAULT 1) | decrement | remove
+@Getter
+@Setter
+@NoArgsConstructor
+public class CartOperation {
+    private String op;
+    private Long bookId;
+    private Integer quantity;
+}
@@ -0,0 +1,20 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class FacetedSearchResponse {
+    private int total;
+    private List<BookResponse> books;
+    private String nextCursor;
+    private Map<String, Integer> categories;
+    private Map<String, Integer> publishers;
+    private Map<String, Integer> decades;
+}
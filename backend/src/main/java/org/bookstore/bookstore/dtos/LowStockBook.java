@@ -0,0 +1,15 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class LowStockBook {
+    private Integer bookId;
+    private Integer oldQuantity;
+    private Integer newQuantity;
+    private Integer minimumQuantity;
+}
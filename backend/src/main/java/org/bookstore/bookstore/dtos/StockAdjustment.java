@@ -0,0 +1,15 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// ONE LINE OF A BULK STOCK UPDATE: EITHER AN ABSOLUTE QUANTITY OR A DELTA
+@Getter
+@Setter
+@NoArgsConstructor
+public class StockAdjustment {
+    private Integer bookId;
+    private Integer quantity;
+    private Integer delta;
+}
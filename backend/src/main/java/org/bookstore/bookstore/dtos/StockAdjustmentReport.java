@@ -0,0 +1,16 @@
+package org.bookstore.bookstore.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class StockAdjustmentReport {
+    private int updated;
+    // BOOKS THAT DROPPED BELOW THEIR MinimumQuantity, A PUBLISHER ORDER WAS PLACED FOR EACH
+    private List<LowStockBook> crossedMinimum;
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.bookstore.bookstore.utils.Money;
 
 import java.math.BigDecimal;
 
@@ -32,8 +33,11 @@ public class CartItem {
     private int quantity;
 
     public BigDecimal getSubTotal() {
-        double price = book.getSellingPrice().doubleValue();
-        return BigDecimal.valueOf(price).multiply(BigDecimal.valueOf(quantity));
+        return getSubTotalMoney().toBigDecimal();
+    }
+
+    public Money getSubTotalMoney() {
+        return Money.of(book.getSellingPrice()).times(quantity);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// READS AND PRUNES THE BookChanges LOG THE CATALOG TRIGGERS WRITE. CLIENTS SEE THE LOG IN COMMIT
+// ORDER (CommitSeq, STAMPED BY stampCommitted), NOT IN INSERT ORDER (Seq).
+@Repository
+public class BookChangeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Change(long seq, int bookId, String type) {
+    }
+
+    public BookChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // NUMBER UP TO limit COMMITTED, NOT YET STAMPED ROWS WITH THE NEXT CommitSeqs, RETURNS HOW MANY.
+    // THE COUNTER ROW LOCK SERIALIZES STAMPERS, AND THE PLAIN SELECT ONLY SEES ROWS COMMITTED BEFORE
+    // IT, SO A ROW WHOSE TRANSACTION IS STILL OPEN IS STAMPED ON A LATER RUN WITH A HIGHER CommitSeq
+    // THAN EVERYTHING A CLIENT MAY ALREADY HAVE READ. MUST RUN IN ONE READ COMMITTED TRANSACTION.
+    public int stampCommitted(int limit) {
+        long lastCommitSeq = jdbcTemplate.queryForObject(
+                "SELECT LastCommitSeq FROM BookChangeCounter WHERE Id = 1 FOR UPDATE",
+                Long.class
+        );
+        List<Long> seqs = jdbcTemplate.queryForList(
+                "SELECT Seq FROM BookChanges WHERE CommitSeq IS NULL ORDER BY Seq LIMIT ?",
+                Long.class,
+                limit
+        );
+        if (seqs.isEmpty()) {
+            return 0;
+        }
+        List<long[]> stamps = new ArrayList<>(seqs.size());
+        for (Long seq : seqs) {
+            stamps.add(new long[]{++lastCommitSeq, seq});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE BookChanges SET CommitSeq = ?, CommittedAt = CURRENT_TIMESTAMP(3) WHERE Seq = ?",
+                stamps,
+                stamps.size(),
+                (ps, stamp) -> {
+                    ps.setLong(1, stamp[0]);
+                    ps.setLong(2, stamp[1]);
+                }
+        );
+        jdbcTemplate.update("UPDATE BookChangeCounter SET LastCommitSeq = ? WHERE Id = 1", lastCommitSeq);
+        return seqs.size();
+    }
+
+    // UP TO limit STAMPED CHANGES AFTER afterSeq (A CommitSeq), OLDEST FIRST
+    public List<Change> findChangesAfter(long afterSeq, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT CommitSeq, BookID, ChangeType
+                        FROM BookChanges
+                        WHERE CommitSeq > ?
+                        ORDER BY CommitSeq
+                        LIMIT ?
+                        """,
+                (rs, rowNum) -> new Change(rs.getLong("CommitSeq"), rs.getInt("BookID"), rs.getString("ChangeType")),
+                afterSeq,
+                limit
+        );
+    }
+
+    // LOWEST CommitSeq STILL IN THE LOG, NULL WHEN NOTHING STAMPED IS LEFT
+    public Long findFirstSeq() {
+        return jdbcTemplate.queryForObject("SELECT MIN(CommitSeq) FROM BookChanges", Long.class);
+    }
+
+    // HIGHEST CommitSeq IN THE LOG, 0 WHEN NOTHING IS STAMPED
+    public long findLastSeq() {
+        Long seq = jdbcTemplate.queryForObject("SELECT MAX(CommitSeq) FROM BookChanges", Long.class);
+        return seq == null ? 0 : seq;
+    }
+
+    // DELETE UP TO limit STAMPED ROWS COMMITTED MORE THAN days AGO, RETURNS HOW MANY WENT. CommittedAt
+    // GROWS WITH CommitSeq, SO WHAT IS LEFT IS ALWAYS A CONTIGUOUS TAIL. THE NEWEST STAMPED ROW ALWAYS
+    // STAYS, SO MIN(CommitSeq) KEEPS SHOWING HOW FAR THE LOG WAS PURGED. (THE DERIVED TABLE LETS MySQL
+    // READ BookChanges WHILE DELETING FROM IT.)
+    public int deleteOlderThan(int days, int limit) {
+        return jdbcTemplate.update("""
+                        DELETE FROM BookChanges
+                        WHERE CommittedAt < CURRENT_TIMESTAMP(3) - INTERVAL ? DAY
+                          AND CommitSeq < (SELECT LastSeq FROM (SELECT MAX(CommitSeq) AS LastSeq FROM BookChanges) newest)
+                        ORDER BY CommitSeq
+                        LIMIT ?
+                        """,
+                days,
+                limit
+        );
+    }
+}
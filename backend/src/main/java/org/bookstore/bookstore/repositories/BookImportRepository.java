@@ -0,0 +1,164 @@
+package org.bookstore.bookstore.repositories;
+
+import org.bookstore.bookstore.dtos.BookImportRow;
+import org.bookstore.bookstore.services.Catalog.Isbn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.*;
+
+// SET-BASED WRITES FOR THE BULK CATALOG IMPORT. BATCHES ARE REWRITTEN INTO MULTI-ROW
+// INSERTS BY THE DRIVER (rewriteBatchedStatements=true ON THE DATASOURCE URL).
+@Repository
+public class BookImportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public BookImportRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    // IDS OF ALL PUBLISHERS, USED TO VALIDATE ROWS WITHOUT A QUERY PER ROW
+    public Set<Integer> findPublisherIds() {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT PublisherID FROM Publishers", Integer.class));
+    }
+
+    // STORE EXISTING BOOKS UNDER THE NORMALIZED ISBN THE IMPORT ROWS CARRY, SO importChunk UPDATES
+    // THEM INSTEAD OF INSERTING A SECOND COPY UNDER ANOTHER SPELLING. MUST RUN IN THE SAME
+    // TRANSACTION AS importChunk.
+    public void respellIsbns(Map<Integer, String> isbnByBookId) {
+        if (isbnByBookId.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, String>> books = new ArrayList<>(isbnByBookId.entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE Books SET ISBN = ? WHERE BookID = ? AND ISBN <> ?",
+                books,
+                books.size(),
+                (ps, book) -> {
+                    ps.setString(1, book.getValue());
+                    ps.setInt(2, book.getKey());
+                    ps.setString(3, book.getValue());
+                }
+        );
+    }
+
+    // INSERT OR UPDATE (BY ISBN) A CHUNK OF BOOKS AND LINK THEIR AUTHORS, RETURNS THE BOOK IDS.
+    // AN EXISTING BOOK KEEPS EVERY OPTIONAL COLUMN THE ROW LEAVES OUT, AND KEEPS ITS LIVE STOCK
+    // UNLESS setStock (THE FILE'S COUNT WOULD UNDO SALES MADE SINCE IT WAS PRODUCED).
+    // THE ROWS' ISBNS MUST BE NORMALIZED (Isbn.normalize). MUST RUN INSIDE A TRANSACTION.
+    public List<Integer> importChunk(List<BookImportRow> rows, boolean setStock) {
+        jdbcTemplate.batchUpdate("""
+                        INSERT INTO Books
+                        (ISBN, Title, PublicationYear, SellingPrice, Category,
+                         NumberOfBooks, MinimumQuantity, PublisherID)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                        ON DUPLICATE KEY UPDATE
+                            Title = VALUES(Title),
+                            PublicationYear = COALESCE(VALUES(PublicationYear), PublicationYear),
+                            SellingPrice = COALESCE(VALUES(SellingPrice), SellingPrice),
+                            Category = COALESCE(VALUES(Category), Category),
+                            NumberOfBooks = %s,
+                            MinimumQuantity = COALESCE(VALUES(MinimumQuantity), MinimumQuantity),
+                            PublisherID = VALUES(PublisherID)
+                        """.formatted(setStock ? "COALESCE(VALUES(NumberOfBooks), NumberOfBooks)" : "NumberOfBooks"),
+                rows,
+                rows.size(),
+                (ps, row) -> {
+                    ps.setString(1, row.getIsbn());
+                    ps.setString(2, row.getTitle());
+                    ps.setObject(3, row.getPublicationYear(), Types.INTEGER);
+                    ps.setBigDecimal(4, row.getSellingPrice());
+                    ps.setString(5, row.getCategory());
+                    ps.setObject(6, row.getNumberOfBooks(), Types.INTEGER);
+                    ps.setObject(7, row.getMinimumQuantity(), Types.INTEGER);
+                    ps.setInt(8, row.getPublisherId());
+                }
+        );
+
+        Map<String, Integer> bookIdByIsbn = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT BookID, ISBN FROM Books WHERE ISBN IN (:isbns)",
+                new MapSqlParameterSource("isbns", rows.stream().map(BookImportRow::getIsbn).toList()),
+                rs -> {
+                    bookIdByIsbn.put(Isbn.normalize(rs.getString("ISBN")), rs.getInt("BookID"));
+                }
+        );
+
+        Map<String, Integer> authorIds = findOrCreateAuthors(rows);
+        List<int[]> links = new ArrayList<>();
+        for (BookImportRow row : rows) {
+            Integer bookId = bookIdByIsbn.get(row.getIsbn());
+            for (String author : row.getAuthors()) {
+                links.add(new int[]{bookId, authorIds.get(key(author))});
+            }
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT IGNORE INTO BookAuthors (BookID, AuthorID) VALUES (?, ?)",
+                    links,
+                    links.size(),
+                    (ps, link) -> {
+                        ps.setInt(1, link[0]);
+                        ps.setInt(2, link[1]);
+                    }
+            );
+        }
+
+        List<Integer> bookIds = new ArrayList<>(rows.size());
+        for (BookImportRow row : rows) {
+            bookIds.add(bookIdByIsbn.get(row.getIsbn()));
+        }
+        return bookIds;
+    }
+
+    // AUTHOR NAME (KEYED BY key()) -> AuthorID, INSERTING THE NAMES THAT DO NOT EXIST YET
+    private Map<String, Integer> findOrCreateAuthors(List<BookImportRow> rows) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (BookImportRow row : rows) {
+            for (String author : row.getAuthors()) {
+                names.putIfAbsent(key(author), author);
+            }
+        }
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Integer> ids = findAuthorIds(names.values());
+        List<String> missing = names.entrySet().stream()
+                .filter(name -> !ids.containsKey(name.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO Authors (Name) VALUES (?)",
+                    missing,
+                    missing.size(),
+                    (ps, name) -> ps.setString(1, name)
+            );
+            ids.putAll(findAuthorIds(missing));
+        }
+        return ids;
+    }
+
+    private Map<String, Integer> findAuthorIds(Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT AuthorID, Name FROM Authors WHERE Name IN (:names) ORDER BY AuthorID",
+                new MapSqlParameterSource("names", names),
+                rs -> {
+                    ids.putIfAbsent(key(rs.getString("Name")), rs.getInt("AuthorID"));
+                }
+        );
+        return ids;
+    }
+
+    // MYSQL COMPARES THESE COLUMNS CASE-INSENSITIVELY, SO THE JAVA-SIDE MAPS MUST TOO
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
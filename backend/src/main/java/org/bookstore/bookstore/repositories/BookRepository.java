@@ -9,15 +9,42 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 @Transactional
 public interface BookRepository extends JpaRepository<Book, Integer> {
-    // GET ALL BOOKS
-    @Query(value = "SELECT * FROM Books", nativeQuery = true)
-    List<Book> getAllBooks();
+    // IDS OF A PAGE OF BOOKS ORDERED BY ID (KEYSET SEEK). THE PAGE QUERIES ONLY RETURN KEYS, THE
+    // DETAILS COME FROM THE BOOK DETAIL CACHE AND ONE BATCH QUERY FOR ITS MISSES
+    @Query(value = """
+                SELECT BookID FROM Books
+                WHERE BookID > :afterId
+                ORDER BY BookID
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<Integer> findPageIdsById(
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
+
+    // (BookID, Title) OF A PAGE OF BOOKS ORDERED BY TITLE, TIES BROKEN BY ID (KEYSET SEEK). SPELLED
+    // OUT INSTEAD OF A ROW COMPARISON, WHICH MYSQL'S RANGE OPTIMIZER DOES NOT TURN INTO A SEEK ON
+    // idx_books_title
+    @Query(value = """
+                SELECT BookID, Title FROM Books
+                WHERE Title > :afterTitle
+                   OR (Title = :afterTitle AND BookID > :afterId)
+                ORDER BY Title, BookID
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<Object[]> findPageKeysByTitle(
+            @Param("afterTitle") String afterTitle,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
 
     // ADD NEW BOOK (Admin)
     @Modifying
@@ -39,6 +66,10 @@ public interface BookRepository extends JpaRepository<Book, Integer> {
             @Param("publisherId") Integer publisherId
     );
 
+    // ID OF THE BOOK INSERTED ON THIS CONNECTION
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Integer getLastInsertedBookId();
+
     // UPDATE BOOK INFO (Admin)
     @Modifying
     @Query(value = """
@@ -73,38 +104,144 @@ public interface BookRepository extends JpaRepository<Book, Integer> {
     @Query(value = "SELECT * FROM Books WHERE ISBN = :isbn", nativeQuery = true)
     Optional<Book> findByIsbn(@Param("isbn") String isbn);
 
+    // BOOK WITH PUBLISHER AND AUTHORS LOADED, SAFE TO KEEP AFTER THE SESSION ENDS
+    @Query("""
+                SELECT b FROM Book b
+                JOIN FETCH b.publisher
+                LEFT JOIN FETCH b.authors
+                WHERE b.bookID = :bookId
+            """)
+    Optional<Book> findDetailsById(@Param("bookId") Integer bookId);
+
+    // MANY BOOKS WITH PUBLISHER AND AUTHORS IN ONE QUERY, WHATEVER THE NUMBER OF IDS
+    @Query("""
+                SELECT DISTINCT b FROM Book b
+                JOIN FETCH b.publisher
+                LEFT JOIN FETCH b.authors
+                WHERE b.bookID IN :bookIds
+            """)
+    List<Book> findDetailsByIds(@Param("bookIds") Collection<Integer> bookIds);
+
+    @Query("""
+                SELECT DISTINCT b FROM Book b
+                JOIN FETCH b.publisher
+                LEFT JOIN FETCH b.authors
+                WHERE b.isbn IN :isbns
+            """)
+    List<Book> findDetailsByIsbns(@Param("isbns") Collection<String> isbns);
+
     // SEARCH BY TITLE (Admin + Customer)
     @Query(value = """
-                SELECT * FROM Books
+                SELECT BookID FROM Books
                 WHERE Title LIKE %:title%
+                  AND BookID > :afterId
+                ORDER BY BookID
+                LIMIT :limit
             """, nativeQuery = true)
-    List<Book> findByTitle(@Param("title") String title);
+    List<Integer> findIdsByTitle(
+            @Param("title") String title,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
 
     // SEARCH BY CATEGORY (Admin + Customer)
     @Query(value = """
-                SELECT * FROM Books
+                SELECT BookID FROM Books
                 WHERE Category = :category
+                  AND BookID > :afterId
+                ORDER BY BookID
+                LIMIT :limit
             """, nativeQuery = true)
-    List<Book> findByCategory(@Param("category") String category);
+    List<Integer> findIdsByCategory(
+            @Param("category") String category,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
 
     // SEARCH BY AUTHOR (Admin + Customer)
     @Query(value = """
-                SELECT DISTINCT b.*
+                SELECT DISTINCT b.BookID
                 FROM Books b
                 JOIN BookAuthors ba ON b.BookID = ba.BookID
                 JOIN Authors a ON a.AuthorID = ba.AuthorID
                 WHERE a.Name LIKE %:author%
+                  AND b.BookID > :afterId
+                ORDER BY b.BookID
+                LIMIT :limit
             """, nativeQuery = true)
-    List<Book> findByAuthor(@Param("author") String authorName);
+    List<Integer> findIdsByAuthor(
+            @Param("author") String authorName,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
 
     // SEARCH BY PUBLISHER (Admin + Customer)
     @Query(value = """
-                SELECT b.*
+                SELECT b.BookID
                 FROM Books b
                 JOIN Publishers p ON b.PublisherID = p.PublisherID
                 WHERE p.Name LIKE %:publisher%
+                  AND b.BookID > :afterId
+                ORDER BY b.BookID
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<Integer> findIdsByPublisher(
+            @Param("publisher") String publisherName,
+            @Param("afterId") Integer afterId,
+            @Param("limit") int limit
+    );
+
+    // CATALOG ROWS FOR THE IN-MEMORY CATALOG INDEXES (ONE ROW PER AUTHOR)
+    @Query(value = """
+                SELECT b.BookID, b.Title, p.Name, b.Category, b.PublicationYear, b.SellingPrice, b.ISBN, a.Name,
+                       COALESCE(s.Sold, 0)
+                FROM Books b
+                JOIN Publishers p ON b.PublisherID = p.PublisherID
+                LEFT JOIN BookAuthors ba ON b.BookID = ba.BookID
+                LEFT JOIN Authors a ON a.AuthorID = ba.AuthorID
+                LEFT JOIN (
+                    SELECT BookID, SUM(Quantity) AS Sold FROM CustomerOrderItems GROUP BY BookID
+                ) s ON s.BookID = b.BookID
+                ORDER BY b.BookID
+            """, nativeQuery = true)
+    List<Object[]> findCatalogRows();
+
+    @Query(value = """
+                SELECT b.BookID, b.Title, p.Name, b.Category, b.PublicationYear, b.SellingPrice, b.ISBN, a.Name,
+                       (SELECT COALESCE(SUM(oi.Quantity), 0) FROM CustomerOrderItems oi WHERE oi.BookID = b.BookID)
+                FROM Books b
+                JOIN Publishers p ON b.PublisherID = p.PublisherID
+                LEFT JOIN BookAuthors ba ON b.BookID = ba.BookID
+                LEFT JOIN Authors a ON a.AuthorID = ba.AuthorID
+                WHERE b.BookID = :bookId
             """, nativeQuery = true)
-    List<Book> findByPublisher(@Param("publisher") String publisherName);
+    List<Object[]> findCatalogRowsByBookId(@Param("bookId") Integer bookId);
 
+    @Query(value = """
+                SELECT b.BookID, b.Title, p.Name, b.Category, b.PublicationYear, b.SellingPrice, b.ISBN, a.Name,
+                       (SELECT COALESCE(SUM(oi.Quantity), 0) FROM CustomerOrderItems oi WHERE oi.BookID = b.BookID)
+                FROM Books b
+                JOIN Publishers p ON b.PublisherID = p.PublisherID
+                LEFT JOIN BookAuthors ba ON b.BookID = ba.BookID
+                LEFT JOIN Authors a ON a.AuthorID = ba.AuthorID
+                WHERE b.BookID IN (:bookIds)
+                ORDER BY b.BookID
+            """, nativeQuery = true)
+    List<Object[]> findCatalogRowsByBookIds(@Param("bookIds") Collection<Integer> bookIds);
+
+    // BOOKS WRITTEN AT OR AFTER since (Books.LastModified), FOR INCREMENTAL CATALOG SYNC
+    @Query(value = """
+                SELECT b.BookID, b.Title, p.Name, b.Category, b.PublicationYear, b.SellingPrice, b.ISBN, a.Name,
+                       (SELECT COALESCE(SUM(oi.Quantity), 0) FROM CustomerOrderItems oi WHERE oi.BookID = b.BookID)
+                FROM Books b
+                JOIN Publishers p ON b.PublisherID = p.PublisherID
+                LEFT JOIN BookAuthors ba ON b.BookID = ba.BookID
+                LEFT JOIN Authors a ON a.AuthorID = ba.AuthorID
+                WHERE b.LastModified >= :since
+                ORDER BY b.BookID
+            """, nativeQuery = true)
+    List<Object[]> findCatalogRowsModifiedSince(@Param("since") LocalDateTime since);
 
+    @Query(value = "SELECT BookID FROM Books", nativeQuery = true)
+    List<Integer> findAllBookIds();
 }
@@ -0,0 +1,100 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.*;
+
+// SET-BASED STOCK READS AND WRITES. lockStock AND updateStock MUST RUN INSIDE THE SAME TRANSACTION.
+@Repository
+public class BookStockRepository {
+
+    private static final int IN_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public record StockRow(Integer quantity, Integer minimum) {
+    }
+
+    public BookStockRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    // CURRENT STOCK OF THE GIVEN BOOKS AS BookID -> (NumberOfBooks, MinimumQuantity), ROWS STAY
+    // LOCKED UNTIL THE TRANSACTION ENDS SO CONCURRENT WRITERS CANNOT INVALIDATE DELTAS
+    public Map<Integer, StockRow> lockStock(Collection<Integer> bookIds) {
+        List<Integer> ids = new ArrayList<>(bookIds);
+        Collections.sort(ids); // SAME LOCK ORDER FOR EVERY CALLER
+        Map<Integer, StockRow> stock = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_BATCH) {
+            namedJdbcTemplate.query("""
+                            SELECT BookID, NumberOfBooks, MinimumQuantity
+                            FROM Books
+                            WHERE BookID IN (:bookIds)
+                            ORDER BY BookID
+                            FOR UPDATE
+                            """,
+                    new MapSqlParameterSource("bookIds", ids.subList(from, Math.min(from + IN_BATCH, ids.size()))),
+                    rs -> {
+                        stock.put(rs.getInt("BookID"), new StockRow(
+                                rs.getObject("NumberOfBooks", Integer.class),
+                                rs.getObject("MinimumQuantity", Integer.class)
+                        ));
+                    }
+            );
+        }
+        return stock;
+    }
+
+    // CURRENT NumberOfBooks OF THE BOOKS THAT STILL EXIST, NO LOCKS
+    public Map<Integer, Integer> findStock(Collection<Integer> bookIds) {
+        List<Integer> ids = new ArrayList<>(bookIds);
+        Map<Integer, Integer> stock = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_BATCH) {
+            namedJdbcTemplate.query(
+                    "SELECT BookID, NumberOfBooks FROM Books WHERE BookID IN (:bookIds)",
+                    new MapSqlParameterSource("bookIds", ids.subList(from, Math.min(from + IN_BATCH, ids.size()))),
+                    rs -> {
+                        stock.put(rs.getInt("BookID"), rs.getObject("NumberOfBooks", Integer.class));
+                    }
+            );
+        }
+        return stock;
+    }
+
+    // TAKES EVERY LINE OF THE CART OUT OF STOCK IN ONE STATEMENT, BUT ONLY WHERE ENOUGH IS LEFT.
+    // RETURNS THE NUMBER OF LINES RESERVED; FEWER THAN THE CART'S (POSITIVE) LINES MEANS A BOOK IS SHORT AND
+    // THE CALLER MUST ROLL BACK. MySQL MAY DRIVE THIS JOIN FROM EITHER TABLE, SO ITS LOCK ORDER IS
+    // NOT FIXED: CALL lockStock WITH THE CART'S BOOKS FIRST IN THE SAME TRANSACTION.
+    public int reserveCartStock(int cartId) {
+        return jdbcTemplate.update("""
+                        UPDATE CartItems ci
+                        JOIN Books b ON b.BookID = ci.book_id
+                        SET b.NumberOfBooks = b.NumberOfBooks - ci.quantity
+                        WHERE ci.cart_id = ?
+                          AND ci.quantity > 0
+                          AND b.NumberOfBooks >= ci.quantity
+                        """,
+                cartId
+        );
+    }
+
+    // ONE BATCHED UPDATE FOR ALL BOOKS. after_book_update FIRES PER ROW AS USUAL.
+    public void updateStock(Map<Integer, Integer> quantities) {
+        List<Map.Entry<Integer, Integer>> rows = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        jdbcTemplate.batchUpdate(
+                "UPDATE Books SET NumberOfBooks = ? WHERE BookID = ?",
+                rows,
+                IN_BATCH,
+                (ps, row) -> {
+                    ps.setObject(1, row.getValue(), Types.INTEGER);
+                    ps.setInt(2, row.getKey());
+                }
+        );
+    }
+}
@@ -0,0 +1,112 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// SET-BASED CartItems READS AND WRITES FOR THE WRITE-BEHIND CART BUFFER, AND ONE-STATEMENT CART CREATION
+@Repository
+public class CartBatchRepository {
+
+    private static final int BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ONE CartItems ROW TO WRITE, A NULL quantity DELETES THE ROW
+    public record ItemWrite(int cartId, long bookId, Integer quantity) {
+    }
+
+    public CartBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // CART ID OF THE USER, CREATING THE CART WHEN THERE IS NONE. ONE STATEMENT: ON A DUPLICATE
+    // user_id (uq_carts_user_id) LAST_INSERT_ID(cart_id) HANDS BACK THE EXISTING ID AS THE GENERATED KEY
+    public int findOrInsertCart(int userId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("""
+                            INSERT INTO Carts (user_id)
+                            VALUES (?)
+                            ON DUPLICATE KEY UPDATE
+                                cart_id = LAST_INSERT_ID(cart_id)
+                            """,
+                    Statement.RETURN_GENERATED_KEYS
+            );
+            ps.setInt(1, userId);
+            return ps;
+        }, keyHolder);
+        Number cartId = keyHolder.getKey();
+        if (cartId != null) {
+            return cartId.intValue();
+        }
+        return jdbcTemplate.queryForObject("SELECT cart_id FROM Carts WHERE user_id = ?", Integer.class, userId);
+    }
+
+    // book_id -> quantity OF ONE CART
+    public Map<Long, Integer> findItems(int cartId) {
+        Map<Long, Integer> items = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT book_id, quantity FROM CartItems WHERE cart_id = ?",
+                rs -> {
+                    items.put(rs.getLong("book_id"), rs.getInt("quantity"));
+                },
+                cartId
+        );
+        return items;
+    }
+
+    // SAME AS findItems, BUT THE CART'S ROWS (AND THE GAP FOR NEW ONES) STAY LOCKED UNTIL THE
+    // TRANSACTION ENDS, SO NO OTHER CART WRITE CAN LAND BETWEEN THE READ AND THE WRITE-BACK
+    public Map<Long, Integer> lockItems(int cartId) {
+        Map<Long, Integer> items = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT book_id, quantity FROM CartItems WHERE cart_id = ? FOR UPDATE",
+                rs -> {
+                    items.put(rs.getLong("book_id"), rs.getInt("quantity"));
+                },
+                cartId
+        );
+        return items;
+    }
+
+    // FINAL QUANTITIES, NOT DELTAS, SO WRITING THE SAME ROWS TWICE IS HARMLESS
+    public void writeItems(List<ItemWrite> writes) {
+        List<ItemWrite> upserts = writes.stream().filter(write -> write.quantity() != null).toList();
+        List<ItemWrite> deletes = writes.stream().filter(write -> write.quantity() == null).toList();
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                            INSERT INTO CartItems (cart_id, book_id, quantity)
+                            VALUES (?, ?, ?)
+                            ON DUPLICATE KEY UPDATE
+                                quantity = VALUES(quantity)
+                            """,
+                    upserts,
+                    BATCH,
+                    (ps, write) -> {
+                        ps.setInt(1, write.cartId());
+                        ps.setLong(2, write.bookId());
+                        ps.setInt(3, write.quantity());
+                    }
+            );
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "DELETE FROM CartItems WHERE cart_id = ? AND book_id = ?",
+                    deletes,
+                    BATCH,
+                    (ps, write) -> {
+                        ps.setInt(1, write.cartId());
+                        ps.setLong(2, write.bookId());
+                    }
+            );
+        }
+    }
+}
@@ -25,6 +25,7 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     );
 
 
+    // Decrement of a book held more than once, one statement. Returns 0 when the row is absent or at 1.
     @Modifying
     @Transactional
     @Query(value = """
@@ -32,22 +33,23 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
         SET quantity = quantity - 1
         WHERE cart_id = :cartId
         AND book_id = :bookId
-        AND quantity > 0
+        AND quantity > 1
         """, nativeQuery = true)
-    void decrementQuantity(
+    int decrementAboveOne(
             @Param("cartId") int cartId,
             @Param("bookId") Long bookId
     );
 
+    // Decrement of the last copy: the row goes instead of being left at 0
     @Modifying
     @Transactional
     @Query(value = """
         DELETE FROM CartItems
         WHERE cart_id = :cartId
         AND book_id = :bookId
-        AND quantity <= 0
+        AND quantity <= 1
         """, nativeQuery = true)
-    void removeIfZero(
+    int removeLastCopy(
             @Param("cartId") int cartId,
             @Param("bookId") Long bookId
     );
@@ -0,0 +1,47 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class CartReadRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // ONE LINE OF A CART. A CART WITHOUT ITEMS IS ONE ROW WITH A NULL bookId.
+    public record CartLine(int cartId, Long bookId, String title, BigDecimal sellingPrice, int quantity) {
+    }
+
+    public CartReadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // THE USER'S CART WITH EVERY LINE, TITLE AND PRICE IN ONE QUERY; EMPTY WHEN THE USER HAS NO CART
+    public List<CartLine> findCartLines(Integer userId) {
+        List<CartLine> lines = new ArrayList<>();
+        jdbcTemplate.query("""
+                        SELECT c.cart_id, it.book_id, b.Title, b.SellingPrice, it.quantity
+                        FROM Carts c
+                        LEFT JOIN CartItems it ON it.cart_id = c.cart_id
+                        LEFT JOIN Books b ON b.BookID = it.book_id
+                        WHERE c.user_id = ?
+                        ORDER BY it.book_id
+                        """,
+                rs -> {
+                    lines.add(new CartLine(
+                            rs.getInt("cart_id"),
+                            rs.getObject("book_id", Long.class),
+                            rs.getString("Title"),
+                            rs.getBigDecimal("SellingPrice"),
+                            rs.getInt("quantity")
+                    ));
+                },
+                userId
+        );
+        return lines;
+    }
+}
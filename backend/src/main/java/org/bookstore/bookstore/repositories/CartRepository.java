@@ -15,14 +15,9 @@ public interface CartRepository extends JpaRepository<Cart,Long> {
     @Query(value = "SELECT * FROM Carts c WHERE c.user_id = :userId", nativeQuery = true)
     Optional<Cart> findByUser_UserId(@Param("userId") Integer userId);
 
-    // Insert cart for user
-    @Transactional
-    @Modifying
-    @Query(value = """
-        INSERT INTO Carts (user_id)
-        VALUES (:userId)
-        """, nativeQuery = true)
-    void insertCartForUser(@Param("userId") Integer userId);
+    // Only the id, for cart writes that do not need the entity (uses uq_carts_user_id)
+    @Query(value = "SELECT cart_id FROM Carts WHERE user_id = :userId", nativeQuery = true)
+    Optional<Integer> findCartIdByUserId(@Param("userId") Integer userId);
 
     // Get last inserted cart ID
     @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
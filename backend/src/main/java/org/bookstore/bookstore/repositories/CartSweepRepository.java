@@ -0,0 +1,61 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+// FINDS AND DELETES CARTS NOBODY TOUCHED FOR ttlDays (Carts.last_modified, KEPT BY THE CartItems TRIGGERS)
+@Repository
+public class CartSweepRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public record StaleCart(int cartId, Integer userId, Timestamp lastModified) {
+    }
+
+    public CartSweepRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+    }
+
+    // NEXT limit STALE CARTS AFTER THE (afterModified, afterCartId) CURSOR, OLDEST FIRST.
+    // A SEEK ON idx_carts_last_modified, NO LOCKS.
+    public List<StaleCart> findStale(int ttlDays, Timestamp afterModified, int afterCartId, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT cart_id, user_id, last_modified
+                        FROM Carts
+                        WHERE last_modified < CURRENT_TIMESTAMP - INTERVAL ? DAY
+                          AND (last_modified > ? OR (last_modified = ? AND cart_id > ?))
+                        ORDER BY last_modified, cart_id
+                        LIMIT ?
+                        """,
+                (rs, rowNum) -> new StaleCart(
+                        rs.getInt("cart_id"),
+                        rs.getObject("user_id", Integer.class),
+                        rs.getTimestamp("last_modified")
+                ),
+                ttlDays,
+                afterModified,
+                afterModified,
+                afterCartId,
+                limit
+        );
+    }
+
+    // DELETES THE GIVEN CARTS (THEIR CartItems GO WITH THEM, ON DELETE CASCADE) UNLESS ONE WAS
+    // TOUCHED SINCE IT WAS FOUND. RETURNS THE NUMBER OF CARTS DELETED.
+    public int deleteStale(List<Integer> cartIds, int ttlDays) {
+        return namedJdbcTemplate.update("""
+                        DELETE FROM Carts
+                        WHERE cart_id IN (:cartIds)
+                          AND last_modified < CURRENT_TIMESTAMP - INTERVAL :ttlDays DAY
+                        """,
+                new MapSqlParameterSource("cartIds", cartIds).addValue("ttlDays", ttlDays)
+        );
+    }
+}
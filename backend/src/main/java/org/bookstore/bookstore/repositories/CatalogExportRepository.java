@@ -0,0 +1,108 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Repository
+public class CatalogExportRepository {
+
+    private static final String EXPORT_QUERY = """
+            SELECT b.BookID, b.ISBN, b.Title, b.PublicationYear, b.SellingPrice,
+                   b.Category, b.NumberOfBooks, b.MinimumQuantity, b.PublisherID,
+                   p.Name AS PublisherName, a.Name AS AuthorName, b.LastModified
+            FROM Books b
+            JOIN Publishers p ON b.PublisherID = p.PublisherID
+            LEFT JOIN BookAuthors ba ON b.BookID = ba.BookID
+            LEFT JOIN Authors a ON a.AuthorID = ba.AuthorID
+            %s
+            ORDER BY b.BookID
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public CatalogExportRepository(JdbcTemplate jdbcTemplate,
+                                   @Value("${bookstore.catalog.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    // STREAM EVERY BOOK MODIFIED SINCE THE GIVEN TIME THROUGH A FORWARD-ONLY CURSOR.
+    // ROWS ARRIVE ORDERED BY BookID, SO ONLY THE BOOK BEING ASSEMBLED IS HELD IN MEMORY.
+    public void streamBooks(LocalDateTime since, Consumer<Map<String, Object>> consumer) {
+        // A FULL EXPORT HAS NO LastModified FILTER, JUST THE WALK IN BookID ORDER
+        String sql = EXPORT_QUERY.formatted(since != null ? "WHERE b.LastModified >= ?" : "");
+
+        PreparedStatementCreator statement = connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            if (since != null) {
+                ps.setTimestamp(1, Timestamp.valueOf(since));
+            }
+            return ps;
+        };
+
+        BookAssembler assembler = new BookAssembler(consumer);
+        jdbcTemplate.query(statement, assembler);
+        assembler.finish();
+    }
+
+    private static class BookAssembler implements RowCallbackHandler {
+
+        private final Consumer<Map<String, Object>> consumer;
+        private Map<String, Object> current;
+        private List<String> authors;
+
+        BookAssembler(Consumer<Map<String, Object>> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int bookId = rs.getInt("BookID");
+            if (current == null || !current.get("bookId").equals(bookId)) {
+                finish();
+                authors = new ArrayList<>();
+                current = new LinkedHashMap<>();
+                current.put("bookId", bookId);
+                current.put("isbn", rs.getString("ISBN"));
+                current.put("title", rs.getString("Title"));
+                current.put("publicationYear", rs.getObject("PublicationYear"));
+                current.put("sellingPrice", rs.getBigDecimal("SellingPrice"));
+                current.put("category", rs.getString("Category"));
+                current.put("numberOfBooks", rs.getObject("NumberOfBooks"));
+                current.put("minimumQuantity", rs.getObject("MinimumQuantity"));
+                current.put("publisherId", rs.getInt("PublisherID"));
+                current.put("publisher", rs.getString("PublisherName"));
+                current.put("authors", authors);
+                current.put("lastModified", rs.getTimestamp("LastModified").toLocalDateTime().toString());
+            }
+            String author = rs.getString("AuthorName");
+            if (author != null) {
+                authors.add(author);
+            }
+        }
+
+        void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+
+@Repository
+public class CatalogSyncRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogSyncRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // THE DATABASE CLOCK, THE ONE Books.LastModified IS WRITTEN WITH
+    public Timestamp currentTime() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class);
+    }
+}
@@ -0,0 +1,32 @@
+package org.bookstore.bookstore.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public class RecommendationRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RecommendationRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // UP TO limit (CustomerOrderID, BookID) PAIRS OF ORDERS AFTER afterOrderId, IN ORDER-ID ORDER.
+    // WALKS THE PRIMARY KEY, SO EACH CALL READS ONLY THE ROWS IT RETURNS.
+    public List<int[]> findOrderItemsAfter(int afterOrderId, int limit) {
+        return jdbcTemplate.query("""
+                        SELECT CustomerOrderID, BookID
+                        FROM CustomerOrderItems
+                        WHERE CustomerOrderID > ?
+                        ORDER BY CustomerOrderID, BookID
+                        LIMIT ?
+                        """,
+                (rs, rowNum) -> new int[]{rs.getInt("CustomerOrderID"), rs.getInt("BookID")},
+                afterOrderId,
+                limit
+        );
+    }
+}
@@ -1,6 +1,5 @@
 package org.bookstore.bookstore.repositories;
 
-import org.bookstore.bookstore.Interfaces.CartItemRow;
 import org.bookstore.bookstore.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -58,61 +57,6 @@ public interface UserRepository  extends JpaRepository<User,Integer> {
     Optional<User> changePassword(@Param("userId") Integer userId , String Password );
 
 
-    @Query(
-            value = """
-        SELECT
-            C.cart_id       AS cartId,
-            B.BookId        AS bookId,
-            B.Title         AS title,
-            B.SellingPrice  AS sellingPrice,
-            it.quantity     AS quantity
-        FROM Carts C
-        JOIN CartItems it ON it.cart_id = C.cart_id
-        JOIN Books B ON it.book_id = B.BookId
-        WHERE C.user_id = :userId
-        """,
-            nativeQuery = true
-    )
-    List<CartItemRow> findCartItemsByCartId(
-            @Param("userId") Integer userId
-    );
-
-
-
-    @Query(
-            value = """
-            SELECT
-                U.UserID        AS userID,
-                C.cart_id       AS cart_Id,
-                B.BookID          AS bookId,
-                B.Title         AS title,
-                B.Category      AS category,
-                B.SellingPrice  AS sellingPrice,
-                it.quantity     AS quantity,
-                COALESCE(
-                    SUM(B.SellingPrice * it.quantity)
-                        OVER (PARTITION BY C.cart_id),
-                    0
-                ) AS cartTotal
-            FROM Users U
-            LEFT JOIN Carts C
-                   ON C.user_id = U.UserID
-            LEFT JOIN CartItems it
-                   ON it.cart_id = C.cart_id
-            LEFT JOIN Books B
-                   ON it.book_id = B.BookId
-            WHERE U.UserID = :id
-              AND C.cart_id = :cartId
-            """,
-            nativeQuery = true
-    )
-    List<Object[]> findCartItemsWithTotal(
-            @Param("id") Long userId,
-            @Param("cartId") Long cartId
-    );
-
-
-
     @Query(
             value = """
             SELECT
@@ -0,0 +1,141 @@
+package org.bookstore.bookstore.services;
+
+import org.bookstore.bookstore.dtos.BookChangesResponse;
+import org.bookstore.bookstore.dtos.BookResponse;
+import org.bookstore.bookstore.dtos.BookStockLevel;
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.bookstore.bookstore.repositories.BookChangeRepository;
+import org.bookstore.bookstore.repositories.BookStockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+// DELTA SYNC FOR CLIENTS THAT KEEP A LOCAL COPY OF THE CATALOG. THEY ASK FOR THE CURRENT SEQUENCE
+// FIRST, LOAD /books/all ONCE, THEN ONLY FETCH WHAT CHANGED AFTER THE LAST SEQUENCE THEY SAW.
+@Service
+public class BookChangeService {
+
+    private static final int PURGE_BATCH = 10000;
+    private static final int STAMP_BATCH = 5000;
+
+    private final BookChangeRepository bookChangeRepository;
+    private final BookStockRepository bookStockRepository;
+    private final BookService bookService;
+    private final TransactionTemplate stampTransaction;
+    private final int defaultRows;
+    private final int maxRows;
+    private final int retentionDays;
+
+    public BookChangeService(
+            BookChangeRepository bookChangeRepository,
+            BookStockRepository bookStockRepository,
+            BookService bookService,
+            PlatformTransactionManager transactionManager,
+            @Value("${bookstore.catalog.changes.default-rows:1000}") int defaultRows,
+            @Value("${bookstore.catalog.changes.max-rows:5000}") int maxRows,
+            @Value("${bookstore.catalog.changes.retention-days:30}") int retentionDays
+    ) {
+        this.bookChangeRepository = bookChangeRepository;
+        this.bookStockRepository = bookStockRepository;
+        this.bookService = bookService;
+        this.stampTransaction = new TransactionTemplate(transactionManager);
+        this.stampTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.defaultRows = defaultRows;
+        this.maxRows = maxRows;
+        this.retentionDays = retentionDays;
+    }
+
+    // BOOKS CHANGED AFTER since, EACH ONCE WITH ITS CURRENT STATE. WITHOUT since ONLY THE
+    // CURRENT SEQUENCE IS RETURNED, THE STARTING POINT FOR A CLIENT ABOUT TO LOAD /books/all.
+    public BookChangesResponse getChanges(Long since, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new BusinessException("Limit must be positive");
+        }
+        if (since == null) {
+            return empty(bookChangeRepository.findLastSeq(), false);
+        }
+        if (since < 0) {
+            throw new BusinessException("Sequence cannot be negative");
+        }
+        Long firstSeq = bookChangeRepository.findFirstSeq();
+        // THE CHANGES RIGHT AFTER since WERE ALREADY PURGED. THE PURGE KEEPS THE NEWEST ROW, SO AN
+        // EMPTY LOG MEANS NOTHING WAS EVER LOGGED AND ANY since ABOVE 0 POINTS AT REMOVED ROWS.
+        if (firstSeq == null ? since > 0 : since < firstSeq - 1) {
+            return empty(bookChangeRepository.findLastSeq(), true);
+        }
+
+        int rows = limit == null ? defaultRows : Math.min(limit, maxRows);
+        List<BookChangeRepository.Change> changes = bookChangeRepository.findChangesAfter(since, rows);
+        if (changes.isEmpty()) {
+            return empty(since, false);
+        }
+
+        // ONE ENTRY PER BOOK: ONLY STOCK CHANGED (true) OR ANYTHING ELSE (false)
+        Map<Integer, Boolean> stockOnly = new TreeMap<>();
+        for (BookChangeRepository.Change change : changes) {
+            boolean restock = "RESTOCK".equals(change.type());
+            stockOnly.merge(change.bookId(), restock, Boolean::logicalAnd);
+        }
+        List<Integer> updatedIds = new ArrayList<>();
+        List<Integer> restockedIds = new ArrayList<>();
+        for (Map.Entry<Integer, Boolean> entry : stockOnly.entrySet()) {
+            (entry.getValue() ? restockedIds : updatedIds).add(entry.getKey());
+        }
+
+        // THE LOG ONLY SAYS WHICH BOOKS TO LOOK AT, A BOOK THAT IS GONE NOW IS REPORTED AS DELETED
+        Set<Integer> deleted = new TreeSet<>(stockOnly.keySet());
+        List<BookResponse> updated = bookService.findBooksInOrder(updatedIds);
+        for (BookResponse book : updated) {
+            deleted.remove(book.getBookID());
+        }
+        List<BookStockLevel> restocked = new ArrayList<>();
+        if (!restockedIds.isEmpty()) {
+            Map<Integer, Integer> stock = bookStockRepository.findStock(restockedIds);
+            for (Integer bookId : restockedIds) {
+                if (stock.containsKey(bookId)) {
+                    restocked.add(new BookStockLevel(bookId, stock.get(bookId)));
+                    deleted.remove(bookId);
+                }
+            }
+        }
+
+        return new BookChangesResponse(
+                changes.get(changes.size() - 1).seq(),
+                changes.size() == rows,
+                false,
+                updated,
+                restocked,
+                new ArrayList<>(deleted)
+        );
+    }
+
+    // GIVE THE LOG ROWS COMMITTED SINCE THE LAST RUN THEIR CommitSeq, THE ORDER CLIENTS READ THEM IN.
+    // A CHANGE REACHES /books/changes AT MOST stamp-ms AFTER ITS TRANSACTION COMMITS.
+    @Scheduled(fixedDelayString = "${bookstore.catalog.changes.stamp-ms:200}")
+    public void stampCommitted() {
+        Integer stamped;
+        do {
+            stamped = stampTransaction.execute(status -> bookChangeRepository.stampCommitted(STAMP_BATCH));
+        } while (stamped != null && stamped == STAMP_BATCH);
+    }
+
+    // KEEP THE LOG BOUNDED, CLIENTS BEHIND THE RETENTION WINDOW ARE TOLD TO RESYNC
+    @Scheduled(
+            initialDelayString = "${bookstore.catalog.changes.purge-ms:3600000}",
+            fixedDelayString = "${bookstore.catalog.changes.purge-ms:3600000}"
+    )
+    public void purge() {
+        while (bookChangeRepository.deleteOlderThan(retentionDays, PURGE_BATCH) == PURGE_BATCH) {
+            // SMALL DELETES SO NO SINGLE STATEMENT HOLDS LOCKS FOR LONG
+        }
+    }
+
+    private static BookChangesResponse empty(long sequence, boolean resyncRequired) {
+        return new BookChangesResponse(sequence, false, resyncRequired, List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,339 @@
+package org.bookstore.bookstore.services;
+
+import org.bookstore.bookstore.dtos.BookImportError;
+import org.bookstore.bookstore.dtos.BookImportReport;
+import org.bookstore.bookstore.dtos.BookImportRow;
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.bookstore.bookstore.repositories.BookImportRepository;
+import org.bookstore.bookstore.services.Catalog.BookDetailCache;
+import org.bookstore.bookstore.services.Catalog.Isbn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// BULK CATALOG IMPORT: ROWS ARE READ AS A STREAM, VALIDATED IN PARALLEL PER CHUNK AND
+// WRITTEN WITH BATCHED STATEMENTS, ONE TRANSACTION PER CHUNK. A FAILED CHUNK DOES NOT
+// ROLL BACK THE CHUNKS BEFORE IT.
+@Service
+public class BookImportService {
+
+    private final BookImportRepository bookImportRepository;
+    private final BookService bookService;
+    private final BookDetailCache bookDetailCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public BookImportService(
+            BookImportRepository bookImportRepository,
+            BookService bookService,
+            BookDetailCache bookDetailCache,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${bookstore.catalog.import.chunk-size:500}") int chunkSize
+    ) {
+        this.bookImportRepository = bookImportRepository;
+        this.bookService = bookService;
+        this.bookDetailCache = bookDetailCache;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    // IMPORT A CSV (WITH HEADER ROW) OR JSON (ARRAY OR SEQUENCE OF OBJECTS) FILE OF BOOKS
+    public BookImportReport importBooks(MultipartFile file, boolean setStock) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException("Import file is empty");
+        }
+        Run run = new Run(bookImportRepository.findPublisherIds(), setStock);
+        try (InputStream in = new BufferedInputStream(file.getInputStream())) {
+            if (isJson(file)) {
+                readJson(in, run);
+            } else {
+                readCsv(in, run);
+            }
+        } catch (IOException ex) {
+            throw new BusinessException("Could not read import file: " + ex.getMessage());
+        }
+        run.flush();
+        bookService.booksChanged(run.importedIds);
+
+        run.errors.sort(Comparator.comparingLong(BookImportError::getRow));
+        return new BookImportReport(run.totalRows, run.importedIds.size(), run.errors.size(), run.errors);
+    }
+
+    private static boolean isJson(MultipartFile file) {
+        String contentType = file.getContentType();
+        String name = file.getOriginalFilename();
+        return (contentType != null && contentType.contains("json"))
+                || (name != null && name.toLowerCase(Locale.ROOT).endsWith(".json"));
+    }
+
+    // READERS
+
+    private void readJson(InputStream in, Run run) throws IOException {
+        long rowNumber = 0;
+        try (MappingIterator<BookImportRow> rows = objectMapper.readerFor(BookImportRow.class).readValues(in)) {
+            while (true) {
+                rowNumber++;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    BookImportRow row = rows.nextValue();
+                    if (row == null) {
+                        run.reject(rowNumber, null, "Empty row");
+                    } else {
+                        run.add(rowNumber, row);
+                    }
+                } catch (JacksonException ex) {
+                    // A SYNTAX ERROR LEAVES THE PARSER IN AN UNKNOWN STATE, SO STOP HERE
+                    run.reject(rowNumber, null, "Malformed JSON: " + ex.getOriginalMessage());
+                    break;
+                }
+            }
+        }
+    }
+
+    private void readCsv(InputStream in, Run run) throws IOException {
+        CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new BusinessException("Import file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i);
+            // FILES SAVED BY EXCEL START WITH A UTF-8 BYTE ORDER MARK, WHICH WOULD HIDE THE FIRST COLUMN
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name.trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        for (String required : List.of("isbn", "title", "publisherid")) {
+            if (!columns.containsKey(required)) {
+                throw new BusinessException("Missing CSV column: " + required);
+            }
+        }
+
+        long rowNumber = 0;
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            rowNumber++;
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                run.add(rowNumber, toRow(record, columns));
+            } catch (IllegalArgumentException ex) {
+                run.reject(rowNumber, field(record, columns, "isbn"), ex.getMessage());
+            }
+        }
+    }
+
+    private static BookImportRow toRow(List<String> record, Map<String, Integer> columns) {
+        BookImportRow row = new BookImportRow();
+        row.setIsbn(field(record, columns, "isbn"));
+        row.setTitle(field(record, columns, "title"));
+        row.setCategory(field(record, columns, "category"));
+        row.setPublicationYear(parseInt(record, columns, "publicationyear"));
+        row.setNumberOfBooks(parseInt(record, columns, "numberofbooks"));
+        row.setMinimumQuantity(parseInt(record, columns, "minimumquantity"));
+        row.setPublisherId(parseInt(record, columns, "publisherid"));
+        String price = field(record, columns, "sellingprice");
+        if (price != null) {
+            try {
+                row.setSellingPrice(new BigDecimal(price));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid sellingPrice: " + price);
+            }
+        }
+        String authors = field(record, columns, "authors");
+        if (authors != null) {
+            row.setAuthors(Arrays.stream(authors.split(";")).map(String::trim).filter(a -> !a.isEmpty()).toList());
+        }
+        return row;
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer parseInt(List<String> record, Map<String, Integer> columns, String name) {
+        String value = field(record, columns, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    // ONE IMPORT RUN
+
+    private class Run {
+        private final Set<Integer> publisherIds;
+        private final boolean setStock;
+        private final Set<String> seenIsbns = new HashSet<>();
+        private final List<BookImportError> errors = new ArrayList<>();
+        private final List<Integer> importedIds = new ArrayList<>();
+        private final List<NumberedRow> chunk = new ArrayList<>(chunkSize);
+        private long totalRows;
+
+        Run(Set<Integer> publisherIds, boolean setStock) {
+            this.publisherIds = publisherIds;
+            this.setStock = setStock;
+        }
+
+        void add(long rowNumber, BookImportRow row) {
+            totalRows++;
+            chunk.add(new NumberedRow(rowNumber, row));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long rowNumber, String isbn, String message) {
+            totalRows++;
+            errors.add(new BookImportError(rowNumber, isbn, message));
+        }
+
+        // VALIDATE THE BUFFERED ROWS IN PARALLEL, THEN WRITE THE VALID ONES IN ONE TRANSACTION
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<String> problems = chunk.parallelStream().map(this::validate).toList();
+
+            List<BookImportRow> valid = new ArrayList<>(chunk.size());
+            List<NumberedRow> validRows = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                NumberedRow numbered = chunk.get(i);
+                String problem = problems.get(i);
+                // CHECKED IN FILE ORDER SO THE FIRST OCCURRENCE OF AN ISBN IS THE ONE KEPT
+                if (problem == null && !seenIsbns.add(numbered.row().getIsbn())) {
+                    problem = "Duplicate ISBN in this file";
+                }
+                if (problem != null) {
+                    errors.add(new BookImportError(numbered.number(), numbered.row().getIsbn(), problem));
+                } else {
+                    valid.add(numbered.row());
+                    validRows.add(numbered);
+                }
+            }
+            chunk.clear();
+            if (valid.isEmpty()) {
+                return;
+            }
+
+            Map<Integer, String> existing = existingBooks(valid);
+            try {
+                importedIds.addAll(transactionTemplate.execute(status -> {
+                    bookImportRepository.respellIsbns(existing);
+                    return bookImportRepository.importChunk(valid, setStock);
+                }));
+            } catch (DataAccessException ex) {
+                // THE DATABASE DOES NOT SAY WHICH ROW IT REJECTED: WRITE THE CHUNK AGAIN ONE ROW PER
+                // TRANSACTION SO THE REPORT NAMES THE BAD ROWS AND THE GOOD ONES STILL GET IN
+                for (NumberedRow numbered : validRows) {
+                    importOne(numbered);
+                }
+            }
+        }
+
+        private void importOne(NumberedRow numbered) {
+            List<BookImportRow> rows = List.of(numbered.row());
+            Map<Integer, String> existing = existingBooks(rows);
+            try {
+                importedIds.addAll(transactionTemplate.execute(status -> {
+                    bookImportRepository.respellIsbns(existing);
+                    return bookImportRepository.importChunk(rows, setStock);
+                }));
+            } catch (DataAccessException ex) {
+                errors.add(new BookImportError(numbered.number(), numbered.row().getIsbn(),
+                        "Rejected by the database: " + ex.getMostSpecificCause().getMessage()));
+            }
+        }
+
+        // BookID -> NORMALIZED ISBN OF THE ROWS THAT ALREADY EXIST IN THE CATALOG, IN WHATEVER SPELLING
+        // THEY WERE STORED UNDER (THE BOOK DETAIL CACHE'S ISBN DIRECTORY COVERS THE WHOLE CATALOG)
+        private Map<Integer, String> existingBooks(List<BookImportRow> rows) {
+            Map<Integer, String> existing = new HashMap<>();
+            for (BookImportRow row : rows) {
+                Integer bookId = bookDetailCache.findBookId(row.getIsbn());
+                if (bookId != null) {
+                    existing.put(bookId, row.getIsbn());
+                }
+            }
+            return existing;
+        }
+
+        // NULL WHEN THE ROW IS VALID, OTHERWISE THE REASON IT IS REJECTED. THE ISBN IS STORED NORMALIZED
+        // (NO SEPARATORS, ISBN-10 AS ISBN-13), SO EVERY SPELLING OF A BOOK MAPS TO THE SAME ROW
+        private String validate(NumberedRow numbered) {
+            BookImportRow row = numbered.row();
+            if (row.getIsbn() != null) {
+                row.setIsbn(Isbn.normalize(row.getIsbn().trim()));
+            }
+            if (row.getAuthors() == null) {
+                row.setAuthors(List.of());
+            }
+            if (row.getIsbn() == null || row.getIsbn().isEmpty()) {
+                return "ISBN is required";
+            }
+            if (row.getIsbn().length() > 20) {
+                return "ISBN is longer than 20 characters";
+            }
+            if (row.getTitle() == null || row.getTitle().isBlank()) {
+                return "Title is required";
+            }
+            if (row.getTitle().length() > 255) {
+                return "Title is longer than 255 characters";
+            }
+            if (row.getCategory() != null && row.getCategory().length() > 100) {
+                return "Category is longer than 100 characters";
+            }
+            if (row.getSellingPrice() != null && row.getSellingPrice().signum() < 0) {
+                return "Selling price cannot be negative";
+            }
+            if (row.getNumberOfBooks() != null && row.getNumberOfBooks() < 0) {
+                return "Number of books cannot be negative";
+            }
+            if (row.getMinimumQuantity() != null && row.getMinimumQuantity() < 0) {
+                return "Minimum quantity cannot be negative";
+            }
+            if (row.getPublisherId() == null || !publisherIds.contains(row.getPublisherId())) {
+                return "Unknown publisher: " + row.getPublisherId();
+            }
+            for (String author : row.getAuthors()) {
+                if (author == null || author.isBlank()) {
+                    return "Author name cannot be blank";
+                }
+                if (author.length() > 255) {
+                    return "Author name is longer than 255 characters";
+                }
+            }
+            return null;
+        }
+    }
+
+    private record NumberedRow(long number, BookImportRow row) {
+    }
+}
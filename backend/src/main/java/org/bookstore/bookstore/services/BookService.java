@@ -1,28 +1,109 @@
 package org.bookstore.bookstore.services;
 
+import org.bookstore.bookstore.dtos.BookBatchResponse;
+import org.bookstore.bookstore.dtos.BookPage;
+import org.bookstore.bookstore.dtos.BookResponse;
+import org.bookstore.bookstore.dtos.BookSearchCriteria;
+import org.bookstore.bookstore.dtos.FacetedSearchResponse;
+import org.bookstore.bookstore.dtos.LowStockBook;
+import org.bookstore.bookstore.dtos.StockAdjustment;
+import org.bookstore.bookstore.dtos.StockAdjustmentReport;
 import org.bookstore.bookstore.entities.Book;
 import org.bookstore.bookstore.exceptions.BusinessException;
 import org.bookstore.bookstore.repositories.BookRepository;
+import org.bookstore.bookstore.repositories.BookStockRepository;
+import org.bookstore.bookstore.repositories.BookStockRepository.StockRow;
+import org.bookstore.bookstore.services.Catalog.AutocompleteIndex;
+import org.bookstore.bookstore.services.Catalog.BookDetailCache;
+import org.bookstore.bookstore.services.Catalog.CatalogCursor;
+import org.bookstore.bookstore.services.Catalog.CatalogIndexer;
+import org.bookstore.bookstore.services.Catalog.CatalogSearchIndex;
+import org.bookstore.bookstore.services.Catalog.FacetIndex;
+import org.bookstore.bookstore.services.Catalog.FuzzySearchIndex;
+import org.bookstore.bookstore.services.Catalog.Isbn;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class BookService {
 
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final BookRepository bookRepository;
+    private final BookStockRepository bookStockRepository;
+    private final CatalogIndexer catalogIndexer;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final FuzzySearchIndex fuzzySearchIndex;
+    private final FacetIndex facetIndex;
+    private final BookDetailCache bookDetailCache;
+    private final AutocompleteIndex autocompleteIndex;
+    private final StockStreamService stockStreamService;
+    private final boolean sqlSearch;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxBatchKeys;
+
+    // BUMPED AFTER EVERY CATALOG WRITE, ONCE IT IS COMMITTED (afterCommit) SO NO READ CAN PAIR THE
+    // NEW TAG WITH OLD DATA. THE EPOCH CHANGES ON RESTART SO OLD TAGS NEVER MATCH AGAIN.
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final long catalogEpoch = System.currentTimeMillis();
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository,
+                       BookStockRepository bookStockRepository,
+                       CatalogIndexer catalogIndexer,
+                       CatalogSearchIndex catalogSearchIndex,
+                       FuzzySearchIndex fuzzySearchIndex,
+                       FacetIndex facetIndex,
+                       BookDetailCache bookDetailCache,
+                       AutocompleteIndex autocompleteIndex,
+                       StockStreamService stockStreamService,
+                       @Value("${bookstore.catalog.search-mode:index}") String searchMode,
+                       @Value("${bookstore.catalog.page-size:50}") int defaultPageSize,
+                       @Value("${bookstore.catalog.max-page-size:500}") int maxPageSize,
+                       @Value("${bookstore.catalog.batch.max-keys:100}") int maxBatchKeys) {
         this.bookRepository = bookRepository;
+        this.bookStockRepository = bookStockRepository;
+        this.catalogIndexer = catalogIndexer;
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.fuzzySearchIndex = fuzzySearchIndex;
+        this.facetIndex = facetIndex;
+        this.bookDetailCache = bookDetailCache;
+        this.autocompleteIndex = autocompleteIndex;
+        this.stockStreamService = stockStreamService;
+        this.sqlSearch = "sql".equalsIgnoreCase(searchMode);
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchKeys = maxBatchKeys;
+    }
+
+    // STRONG ETAG FOR EVERY CATALOG READ, CHANGES WHENEVER THE CATALOG DOES
+    public String getCatalogETag() {
+        return "\"" + Long.toString(catalogEpoch, 36) + "-" + catalogVersion.get() + "\"";
     }
 
-    // GET ALL BOOKS
-    public List<Book> getAllBooks() {
-        return bookRepository.getAllBooks();
+    // GET ALL BOOKS, ONE KEYSET PAGE AT A TIME (sort = id | title)
+    public BookPage getBooks(String sort, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        if ("id".equals(sort)) {
+            CatalogCursor after = CatalogCursor.decode(cursor, sort);
+            return toPageOfIds(bookRepository.findPageIdsById(after.getLastId(), pageSize + 1), pageSize);
+        }
+        if ("title".equals(sort)) {
+            CatalogCursor after = CatalogCursor.decode(cursor, sort);
+            return toTitlePage(bookRepository.findPageKeysByTitle(after.getLastTitle(), after.getLastId(), pageSize + 1), pageSize);
+        }
+        throw new BusinessException("Unsupported sort: " + sort);
     }
 
     // ADD A NEW BOOK
+    @Transactional
     public void addBook(Book book) {
         if (book.getPublisher() == null || book.getPublisher().getPublisherID() == null) {
             throw new BusinessException("Publisher information is required");
@@ -38,6 +119,12 @@ public class BookService {
                 book.getMinimumQuantity(),
                 book.getPublisher().getPublisherID()
         );
+        // THE INDEXES ONLY LEARN ABOUT THE BOOK ONCE IT IS COMMITTED, A ROLLED BACK INSERT LEAVES NO TRACE
+        Integer bookId = bookRepository.getLastInsertedBookId();
+        afterCommit(() -> {
+            catalogIndexer.refresh(bookId);
+            catalogVersion.incrementAndGet();
+        });
     }
 
     // UPDATE BOOK INFORMATION
@@ -49,6 +136,10 @@ public class BookService {
                 book.getSellingPrice(),
                 book.getCategory()
         );
+        afterCommit(() -> {
+            catalogIndexer.refresh(book.getBookID());
+            catalogVersion.incrementAndGet();
+        });
     }
 
     // UPDATE BOOK STOCK
@@ -57,6 +148,90 @@ public class BookService {
             throw new BusinessException("Stock quantity cannot be negative");
         }
         bookRepository.updateBookQuantity(bookId, newQuantity);
+        stockChanged(bookId);
+    }
+
+    // APPLY MANY STOCK CHANGES (ABSOLUTE quantity OR delta) ATOMICALLY. LINES FOR THE SAME BOOK
+    // ARE APPLIED IN ORDER AND WRITTEN ONCE, SO THE TRIGGER SEES THE ORIGINAL AND FINAL STOCK.
+    @Transactional
+    public StockAdjustmentReport updateBookStocks(List<StockAdjustment> adjustments) {
+        if (adjustments == null || adjustments.isEmpty()) {
+            return new StockAdjustmentReport(0, List.of());
+        }
+        Set<Integer> bookIds = new HashSet<>();
+        for (StockAdjustment adjustment : adjustments) {
+            if (adjustment.getBookId() == null) {
+                throw new BusinessException("Book id is required");
+            }
+            if ((adjustment.getQuantity() == null) == (adjustment.getDelta() == null)) {
+                throw new BusinessException("Exactly one of quantity or delta is required for book " + adjustment.getBookId());
+            }
+            bookIds.add(adjustment.getBookId());
+        }
+
+        Map<Integer, StockRow> stock = bookStockRepository.lockStock(bookIds);
+        Map<Integer, Integer> quantities = new HashMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            StockRow current = stock.get(adjustment.getBookId());
+            if (current == null) {
+                throw new BusinessException("Book not found: " + adjustment.getBookId());
+            }
+            int quantity = adjustment.getQuantity() != null
+                    ? adjustment.getQuantity()
+                    : quantities.getOrDefault(adjustment.getBookId(), current.quantity() == null ? 0 : current.quantity()) + adjustment.getDelta();
+            if (quantity < 0) {
+                throw new BusinessException("Stock quantity cannot be negative for book " + adjustment.getBookId());
+            }
+            quantities.put(adjustment.getBookId(), quantity);
+        }
+        bookStockRepository.updateStock(quantities);
+
+        // SAME CONDITION AS THE after_book_update TRIGGER
+        List<LowStockBook> crossed = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            Integer oldQuantity = stock.get(entry.getKey()).quantity();
+            Integer minimum = stock.get(entry.getKey()).minimum();
+            if (oldQuantity != null && minimum != null && oldQuantity >= minimum && entry.getValue() < minimum) {
+                crossed.add(new LowStockBook(entry.getKey(), oldQuantity, entry.getValue(), minimum));
+            }
+        }
+
+        afterCommit(() -> {
+            for (Integer bookId : quantities.keySet()) {
+                bookDetailCache.evict(bookId);
+            }
+            stockStreamService.stockChanged(quantities.keySet());
+            catalogVersion.incrementAndGet();
+        });
+        return new StockAdjustmentReport(quantities.size(), crossed);
+    }
+
+    // MANY BOOKS WERE WRITTEN OUTSIDE THIS SERVICE (BULK IMPORT)
+    public void booksChanged(Collection<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            catalogIndexer.refresh(bookIds);
+            stockStreamService.stockChanged(bookIds);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    // STOCK OF A BOOK WAS CHANGED OUTSIDE THIS SERVICE (E.G. BY THE PUBLISHER ORDER TRIGGER)
+    public void stockChanged(Integer bookId) {
+        stockChanged(List.of(bookId));
+    }
+
+    // STOCK OF THESE BOOKS WAS CHANGED OUTSIDE THIS SERVICE (E.G. RESERVED BY A CHECKOUT)
+    public void stockChanged(Collection<Integer> bookIds) {
+        afterCommit(() -> {
+            for (Integer bookId : bookIds) {
+                bookDetailCache.evict(bookId);
+            }
+            stockStreamService.stockChanged(bookIds);
+            catalogVersion.incrementAndGet();
+        });
     }
 
     // DELETE BOOK
@@ -65,30 +240,289 @@ public class BookService {
             throw new BusinessException("Book not found");
         }
         bookRepository.deleteById(bookId);
+        afterCommit(() -> {
+            catalogIndexer.remove(bookId);
+            catalogVersion.incrementAndGet();
+        });
+    }
+
+    // FIND BOOK BY ID (CACHED)
+    public Optional<BookResponse> findBookById(Integer bookId) {
+        return bookDetailCache.get(bookId, this::loadDetails);
     }
 
-    // SEARCH BOOK BY ISBN
-    public Optional<Book> searchBookByIsbn(String isbn) {
-        return bookRepository.findByIsbn(isbn);
+    // SEARCH BOOK BY ISBN (CACHED, HYPHENS AND ISBN-10 ACCEPTED)
+    public Optional<BookResponse> searchBookByIsbn(String isbn) {
+        return bookDetailCache.getByIsbn(
+                isbn,
+                this::loadDetails,
+                () -> findByAnyIsbnSpelling(List.of(isbn)).stream().findFirst()
+        );
+    }
+
+    // MANY BOOKS BY ID AND/OR ISBN, SERVED FROM THE CACHE WITH ONE QUERY FOR THE MISSES.
+    // ISBNS THE DIRECTORY DOES NOT KNOW (E.G. BEFORE THE FIRST INDEX BUILD) COST ONE MORE QUERY.
+    public BookBatchResponse findBooks(List<Integer> ids, List<String> isbns) {
+        List<Integer> bookIds = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).toList();
+        List<String> isbnKeys = isbns == null ? List.of() : isbns.stream().filter(Objects::nonNull).toList();
+        if (bookIds.size() + isbnKeys.size() > maxBatchKeys) {
+            throw new BusinessException("At most " + maxBatchKeys + " ids and isbns per request");
+        }
+
+        Map<String, Integer> idByIsbn = new HashMap<>();
+        List<String> unknownIsbns = new ArrayList<>();
+        for (String isbn : isbnKeys) {
+            Integer bookId = bookDetailCache.findBookId(isbn);
+            if (bookId != null) {
+                idByIsbn.put(isbn, bookId);
+            } else {
+                unknownIsbns.add(isbn);
+            }
+        }
+        List<Integer> wanted = new ArrayList<>(bookIds);
+        wanted.addAll(idByIsbn.values());
+        Map<Integer, BookResponse> books = new HashMap<>(bookDetailCache.getAll(wanted, this::loadAllDetails));
+        if (!unknownIsbns.isEmpty()) {
+            Map<String, BookResponse> byIsbn = new HashMap<>();
+            for (BookResponse book : findByAnyIsbnSpelling(unknownIsbns)) {
+                byIsbn.put(Isbn.normalize(book.getIsbn()), book);
+                books.put(book.getBookID(), book);
+            }
+            for (String isbn : unknownIsbns) {
+                BookResponse book = byIsbn.get(Isbn.normalize(isbn));
+                if (book != null) {
+                    idByIsbn.put(isbn, book.getBookID());
+                }
+            }
+        }
+
+        List<BookResponse> found = new ArrayList<>();
+        Set<Integer> added = new HashSet<>();
+        List<Integer> missingIds = new ArrayList<>();
+        List<String> missingIsbns = new ArrayList<>();
+        for (Integer bookId : bookIds) {
+            BookResponse book = books.get(bookId);
+            if (book == null) {
+                missingIds.add(bookId);
+            } else if (added.add(bookId)) {
+                found.add(book);
+            }
+        }
+        for (String isbn : isbnKeys) {
+            BookResponse book = idByIsbn.containsKey(isbn) ? books.get(idByIsbn.get(isbn)) : null;
+            if (book == null) {
+                missingIsbns.add(isbn);
+            } else if (added.add(book.getBookID())) {
+                found.add(book);
+            }
+        }
+        return new BookBatchResponse(found, missingIds, missingIsbns);
+    }
+
+    // BOOKS STORED UNDER EITHER THE GIVEN OR THE NORMALIZED SPELLING OF THE ISBNS, KEEPING ONLY
+    // ROWS WHOSE ISBN NORMALIZES TO ONE THAT WAS ASKED FOR
+    private List<BookResponse> findByAnyIsbnSpelling(Collection<String> isbns) {
+        Set<String> spellings = new LinkedHashSet<>();
+        Set<String> normalized = new HashSet<>();
+        for (String isbn : isbns) {
+            spellings.add(isbn);
+            String key = Isbn.normalize(isbn);
+            spellings.add(key);
+            normalized.add(key);
+        }
+        List<BookResponse> books = new ArrayList<>();
+        for (Book entity : bookRepository.findDetailsByIsbns(spellings)) {
+            if (normalized.contains(Isbn.normalize(entity.getIsbn()))) {
+                books.add(BookResponse.from(entity));
+            }
+        }
+        return books;
+    }
+
+    // HIT / MISS / EVICTION COUNTERS OF THE BOOK DETAIL CACHE
+    public Map<String, Long> getCacheStats() {
+        return bookDetailCache.stats();
     }
 
     // SEARCH BOOK BY TITLE
-    public List<Book> searchBooksByTitle(String title) {
-        return bookRepository.findByTitle(title);
+    public BookPage searchBooksByTitle(String title, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        int afterId = CatalogCursor.decode(cursor, "id").getLastId();
+        if (useSqlSearch()) {
+            return toPageOfIds(bookRepository.findIdsByTitle(title, afterId, pageSize + 1), pageSize);
+        }
+        return toPageOfIds(catalogSearchIndex.searchTitles(title, afterId, pageSize + 1), pageSize);
     }
 
     // SEARCH BOOK BY CATEGORY
-    public List<Book> searchBooksByCategory(String category) {
-        return bookRepository.findByCategory(category);
+    public BookPage searchBooksByCategory(String category, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        int afterId = CatalogCursor.decode(cursor, "id").getLastId();
+        return toPageOfIds(bookRepository.findIdsByCategory(category, afterId, pageSize + 1), pageSize);
     }
 
     // SEARCH BOOK BY AUTHOR
-    public List<Book> searchBooksByAuthor(String author) {
-        return bookRepository.findByAuthor(author);
+    public BookPage searchBooksByAuthor(String author, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        int afterId = CatalogCursor.decode(cursor, "id").getLastId();
+        if (useSqlSearch()) {
+            return toPageOfIds(bookRepository.findIdsByAuthor(author, afterId, pageSize + 1), pageSize);
+        }
+        return toPageOfIds(catalogSearchIndex.searchAuthors(author, afterId, pageSize + 1), pageSize);
     }
 
     // SEARCH BOOK BY PUBLISHER
-    public List<Book> searchBooksByPublisher(String publisher) {
-        return bookRepository.findByPublisher(publisher);
+    public BookPage searchBooksByPublisher(String publisher, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        int afterId = CatalogCursor.decode(cursor, "id").getLastId();
+        if (useSqlSearch()) {
+            return toPageOfIds(bookRepository.findIdsByPublisher(publisher, afterId, pageSize + 1), pageSize);
+        }
+        return toPageOfIds(catalogSearchIndex.searchPublishers(publisher, afterId, pageSize + 1), pageSize);
+    }
+
+    // TYPO-TOLERANT SEARCH, RANKED BY TRIGRAM SIMILARITY (field = title | author | all)
+    public List<BookResponse> fuzzySearchBooks(String query, String field, Integer limit) {
+        if (!"title".equals(field) && !"author".equals(field) && !"all".equals(field)) {
+            throw new BusinessException("Unsupported search field: " + field);
+        }
+        if (!catalogIndexer.isReady()) {
+            throw new BusinessException("Catalog index is not ready yet");
+        }
+        return findBooksInOrder(fuzzySearchIndex.search(query, field, pageSize(limit)));
+    }
+
+    // SEARCH-BOX SUGGESTIONS, MOST POPULAR FIRST (type = title | author | publisher | all)
+    public List<AutocompleteIndex.Suggestion> autocomplete(String prefix, String type, Integer limit) {
+        if (!"all".equals(type) && !AutocompleteIndex.TYPES.contains(type)) {
+            throw new BusinessException("Unsupported suggestion type: " + type);
+        }
+        if (limit != null && limit < 1) {
+            throw new BusinessException("Limit must be positive");
+        }
+        // AN EMPTY LIST IS A BETTER ANSWER THAN AN ERROR FOR A REQUEST FIRED ON EVERY KEYSTROKE
+        if (!catalogIndexer.isReady()) {
+            return List.of();
+        }
+        int size = limit == null ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        return autocompleteIndex.suggest(prefix, type, size);
+    }
+
+    // MULTI-CRITERIA SEARCH WITH FACET COUNTS (BOOKS PER CATEGORY, PUBLISHER AND DECADE)
+    public FacetedSearchResponse searchBooks(BookSearchCriteria criteria, String cursor, Integer limit) {
+        if (!catalogIndexer.isReady()) {
+            throw new BusinessException("Catalog index is not ready yet");
+        }
+        int pageSize = pageSize(limit);
+        int afterId = CatalogCursor.decode(cursor, "id").getLastId();
+        FacetIndex.Result result = facetIndex.search(criteria, afterId, pageSize + 1);
+        BookPage page = toPageOfIds(result.bookIds(), pageSize);
+        return new FacetedSearchResponse(
+                result.total(),
+                page.getBooks(),
+                page.getNextCursor(),
+                result.categories(),
+                result.publishers(),
+                result.decades()
+        );
+    }
+
+    // CACHE EVICTION AND STOCK EVENTS WAIT UNTIL THE WRITE IS VISIBLE, OTHERWISE A CONCURRENT READ
+    // COULD RE-CACHE OR PUBLISH THE OLD ROW. OUTSIDE A TRANSACTION THE WRITE IS ALREADY COMMITTED.
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // CLIENTS THAT SEND NO LIMIT GET THE DEFAULT PAGE, NOBODY GETS MORE THAN THE MAX
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
+        }
+        if (limit < 1) {
+            throw new BusinessException("Page size must be positive");
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    // IDS WERE FETCHED WITH pageSize + 1 SO AN EXTRA ONE MEANS THERE IS A NEXT PAGE. SORTED BY ID,
+    // WHETHER THEY COME FROM A KEYSET QUERY OR AN IN-MEMORY INDEX.
+    private BookPage toPageOfIds(List<Integer> bookIds, int pageSize) {
+        if (bookIds.size() <= pageSize) {
+            return new BookPage(findCachedInOrder(bookIds), null);
+        }
+        List<Integer> ids = bookIds.subList(0, pageSize);
+        CatalogCursor next = new CatalogCursor("id", ids.get(pageSize - 1), null);
+        return new BookPage(findCachedInOrder(ids), next.encode());
+    }
+
+    // SAME FOR (BookID, Title) KEYS IN TITLE ORDER, THE CURSOR ALSO CARRIES THE LAST TITLE
+    private BookPage toTitlePage(List<Object[]> keys, int pageSize) {
+        List<Object[]> page = keys.size() <= pageSize ? keys : keys.subList(0, pageSize);
+        List<BookResponse> books = findCachedInOrder(page.stream().map(key -> ((Number) key[0]).intValue()).toList());
+        if (keys.size() <= pageSize) {
+            return new BookPage(books, null);
+        }
+        Object[] last = page.get(pageSize - 1);
+        CatalogCursor next = new CatalogCursor("title", ((Number) last[0]).intValue(), (String) last[1]);
+        return new BookPage(books, next.encode());
+    }
+
+    // PAGE DETAILS FROM THE DETAIL CACHE, ONE FETCH-JOIN QUERY FOR ALL ITS MISSES
+    private List<BookResponse> findCachedInOrder(List<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, BookResponse> byId = bookDetailCache.getAll(bookIds, this::loadAllDetails);
+        List<BookResponse> books = new ArrayList<>(bookIds.size());
+        for (Integer bookId : bookIds) {
+            BookResponse book = byId.get(bookId);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // ONE BOOK WITH PUBLISHER AND AUTHORS, AS THE CACHE STORES IT
+    private Optional<BookResponse> loadDetails(Integer bookId) {
+        return bookRepository.findDetailsById(bookId).map(BookResponse::from);
+    }
+
+    private List<BookResponse> loadAllDetails(Collection<Integer> bookIds) {
+        return bookRepository.findDetailsByIds(bookIds).stream().map(BookResponse::from).toList();
+    }
+
+    // THE SQL LIKE QUERIES STAY AS FALLBACK UNTIL THE INDEX IS BUILT OR WHEN CONFIGURED
+    private boolean useSqlSearch() {
+        return sqlSearch || !catalogIndexer.isReady();
+    }
+
+    // ONE FETCH-JOIN QUERY FOR THE WHOLE LIST, SO A PAGE COSTS THE SAME NUMBER OF QUERIES AT ANY SIZE.
+    // BOOKS THAT DO NOT EXIST ARE SKIPPED.
+    public List<BookResponse> findBooksInOrder(List<Integer> bookIds) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Book> byId = new HashMap<>();
+        for (Book book : bookRepository.findDetailsByIds(bookIds)) {
+            byId.put(book.getBookID(), book);
+        }
+        List<BookResponse> books = new ArrayList<>(bookIds.size());
+        for (Integer bookId : bookIds) {
+            Book book = byId.get(bookId);
+            if (book != null) {
+                books.add(BookResponse.from(book));
+            }
+        }
+        return books;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.bookstore.bookstore.dtos.CartOperation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ONE CART AS IT WILL BE ONCE THE BUFFER IS FLUSHED: THE ROWS READ WHEN THE DRAFT WAS OPENED WITH
+// EVERY LATER CHANGE APPLIED. ONLY THE BOOKS IN dirty ARE WRITTEN BACK. GUARDED BY lock.
+final class CartDraft {
+
+    final int cartId;
+    final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Integer> items;
+    private final Set<Long> dirty = new HashSet<>();
+
+    // SET ONCE THE DRAFT WAS WRITTEN OR DISCARDED, A CALLER THAT STILL HOLDS IT MUST OPEN A NEW ONE
+    boolean closed;
+
+    CartDraft(int cartId, Map<Long, Integer> items) {
+        this.cartId = cartId;
+        this.items = new HashMap<>(items);
+    }
+
+    // SAME RESULT AS CartItemRepository.addToCart
+    void add(long bookId, int quantity) {
+        items.merge(bookId, quantity, Integer::sum);
+        dirty.add(bookId);
+    }
+
+    // SAME RESULT AS CartItemRepository.decrementAboveOne / removeLastCopy
+    void decrement(long bookId) {
+        Integer quantity = items.get(bookId);
+        if (quantity == null) {
+            return;
+        }
+        if (quantity > 1) {
+            items.put(bookId, quantity - 1);
+        } else {
+            items.remove(bookId);
+        }
+        dirty.add(bookId);
+    }
+
+    void remove(long bookId) {
+        if (items.remove(bookId) != null) {
+            dirty.add(bookId);
+        }
+    }
+
+    // OPERATIONS ARE VALIDATED BY CartService BEFORE THEY GET HERE
+    void apply(CartOperation operation) {
+        switch (operation.getOp()) {
+            case "add" -> add(operation.getBookId(), operation.getQuantity() == null ? 1 : operation.getQuantity());
+            case "decrement" -> decrement(operation.getBookId());
+            case "remove" -> remove(operation.getBookId());
+            default -> throw new IllegalArgumentException(operation.getOp());
+        }
+    }
+
+    boolean isDirty() {
+        return !dirty.isEmpty();
+    }
+
+    // book_id -> FINAL QUANTITY OF EVERY CHANGED BOOK, NULL = DELETE THE ROW
+    Map<Long, Integer> changes() {
+        Map<Long, Integer> changes = new HashMap<>();
+        for (Long bookId : dirty) {
+            changes.put(bookId, items.get(bookId));
+        }
+        return changes;
+    }
+}
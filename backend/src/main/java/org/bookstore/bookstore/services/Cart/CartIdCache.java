@@ -0,0 +1,36 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// userId -> cart_id. A USER HAS AT MOST ONE CART (UNIQUE Carts.user_id) AND ITS ID NEVER CHANGES
+// UNTIL THE CART IS DELETED, SO AN ENTRY ONLY HAS TO GO WHEN CartService OR CartSweeper DELETES THE CART.
+@Component
+public class CartIdCache {
+
+    private final Map<Integer, Integer> cartIds = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    public CartIdCache(@Value("${bookstore.cart.id-cache.max-size:100000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Integer get(Integer userId) {
+        return cartIds.get(userId);
+    }
+
+    public void put(Integer userId, int cartId) {
+        // NO EVICTION ORDER TO MAINTAIN: WHEN FULL START OVER, EVERY ENTRY IS ONE CHEAP QUERY AWAY
+        if (cartIds.size() >= maxSize) {
+            cartIds.clear();
+        }
+        cartIds.put(userId, cartId);
+    }
+
+    public void evict(Integer userId) {
+        cartIds.remove(userId);
+    }
+}
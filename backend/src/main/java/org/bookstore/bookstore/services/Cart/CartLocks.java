@@ -0,0 +1,66 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// SERIALIZES CART WRITES OF ONE USER IN THIS PROCESS: DOUBLE CLICKS AND PARALLEL TABS QUEUE ON A
+// JVM LOCK INSTEAD OF MEETING ON InnoDB ROW AND GAP LOCKS. A FIXED SET OF STRIPES, SO NOTHING IS
+// ALLOCATED OR CLEANED UP PER USER; TWO USERS ON ONE STRIPE ONLY WAIT FOR EACH OTHER.
+@Component
+public class CartLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public CartLocks(
+            @Value("${bookstore.cart.locks.stripes:1024}") int stripes,
+            @Value("${bookstore.cart.locks.timeout-ms:5000}") long timeoutMs
+    ) {
+        // POWER OF TWO SO A STRIPE IS A MASK, NOT A DIVISION
+        int size = Integer.highestOneBit(Math.max(1, stripes));
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = timeoutMs;
+    }
+
+    public void run(Integer userId, Runnable action) {
+        call(userId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // REENTRANT, SO A LOCKED CART WRITE MAY CALL ANOTHER ONE FOR THE SAME USER
+    public <T> T call(Integer userId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripe(userId)];
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException("Cart is busy, try again");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Cart is busy, try again");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int stripe(Integer userId) {
+        // SPREAD SEQUENTIAL IDS OVER ALL STRIPES
+        int h = userId == null ? 0 : userId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
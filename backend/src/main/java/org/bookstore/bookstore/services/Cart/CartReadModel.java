@@ -0,0 +1,120 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.bookstore.bookstore.dtos.CartItemDto;
+import org.bookstore.bookstore.dtos.CartResponse;
+import org.bookstore.bookstore.repositories.CartReadRepository;
+import org.bookstore.bookstore.utils.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// THE ONE WAY A CART IS READ: ONE PROJECTION QUERY FOR CART, LINES, TITLES AND PRICES, FOLDED INTO
+// A CartResponse IN ONE PASS. RESULTS ARE KEPT FOR ttl-ms PER USER (0 = NO CACHE); CartService
+// EVICTS THE USER ON EVERY CART WRITE, A PRICE CHANGE SHOWS UP WHEN THE ENTRY EXPIRES.
+@Component
+public class CartReadModel {
+
+    // GENERATION PER USER (STRIPED, SO IT STAYS BOUNDED), BUMPED BY EVERY EVICTION OF THAT USER. A READ
+    // THAT RACED WITH A WRITE OF ITS OWN CART DOES NOT STAY CACHED.
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final CartReadRepository cartReadRepository;
+    private final CartWriteBuffer cartWriteBuffer;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<Integer, Cached> cache = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private record Cached(CartResponse cart, long expiresAt) {
+    }
+
+    public CartReadModel(
+            CartReadRepository cartReadRepository,
+            CartWriteBuffer cartWriteBuffer,
+            @Value("${bookstore.cart.read-cache.ttl-ms:2000}") long ttlMillis,
+            @Value("${bookstore.cart.read-cache.max-size:10000}") int maxSize
+    ) {
+        this.cartReadRepository = cartReadRepository;
+        this.cartWriteBuffer = cartWriteBuffer;
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    // THE USER'S CART, NULL WHEN THE USER HAS NONE
+    public CartResponse read(Integer userId) {
+        long now = System.currentTimeMillis();
+        Cached cached = cache.get(userId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.cart();
+        }
+
+        long generation = generations.get(stripe(userId));
+        List<CartReadRepository.CartLine> lines = cartReadRepository.findCartLines(userId);
+        if (!lines.isEmpty() && cartWriteBuffer.hasPending(lines.get(0).cartId())) {
+            // WRITE-BEHIND CHANGES ARE NOT IN THE TABLE YET
+            cartWriteBuffer.flush(lines.get(0).cartId());
+            lines = cartReadRepository.findCartLines(userId);
+        }
+        CartResponse cart = fold(lines);
+        if (cart != null && ttlMillis > 0) {
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+            Cached loaded = new Cached(cart, now + ttlMillis);
+            cache.put(userId, loaded);
+            // AN EVICTION BUMPS THE GENERATION BEFORE IT REMOVES: EITHER IT REMOVES THIS ENTRY OR WE SEE THE BUMP
+            if (generations.get(stripe(userId)) != generation) {
+                cache.remove(userId, loaded);
+            }
+        }
+        return cart;
+    }
+
+    // CALLED AFTER EVERY CART WRITE. INSIDE A TRANSACTION ALSO AFTER THE COMMIT, OTHERWISE A READ
+    // RUNNING IN BETWEEN COULD CACHE THE OLD CART AGAIN.
+    public void evict(Integer userId) {
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Integer userId) {
+        generations.incrementAndGet(stripe(userId));
+        cache.remove(userId);
+    }
+
+    private static int stripe(Integer userId) {
+        return Math.floorMod(userId, GENERATION_STRIPES);
+    }
+
+    private static CartResponse fold(List<CartReadRepository.CartLine> lines) {
+        if (lines.isEmpty()) {
+            return null;
+        }
+        Money total = Money.ZERO;
+        List<CartItemDto> items = new ArrayList<>(lines.size());
+        for (CartReadRepository.CartLine line : lines) {
+            if (line.bookId() == null) {
+                continue;
+            }
+            Money price = Money.of(line.sellingPrice());
+            Money subTotal = price.times(line.quantity());
+            items.add(new CartItemDto(line.bookId(), line.title(), line.quantity(), subTotal.toBigDecimal(), price.toBigDecimal()));
+            total = total.plus(subTotal);
+        }
+        return new CartResponse((long) lines.get(0).cartId(), total.toBigDecimal(), items);
+    }
+}
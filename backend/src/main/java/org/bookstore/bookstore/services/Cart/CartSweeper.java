@@ -0,0 +1,149 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.bookstore.bookstore.repositories.CartSweepRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// DELETES CARTS UNTOUCHED FOR ttl-days. WALKS THE STALE CARTS OLDEST FIRST WITH A (last_modified,
+// cart_id) CURSOR, batch-size AT A TIME, SLEEPING pause-ms BETWEEN BATCHES. EACH USER'S CART IS
+// CHECKED AND DELETED UNDER THAT USER'S CartLocks STRIPE, SO A CART WRITE RUNS EITHER BEFORE THE
+// CHECK (AND THE CART IS KEPT) OR AFTER THE DELETE (AND OPENS A NEW CART).
+@Component
+public class CartSweeper {
+
+    private final CartSweepRepository cartSweepRepository;
+    private final CartWriteBuffer cartWriteBuffer;
+    private final CartIdCache cartIdCache;
+    private final CartReadModel cartReadModel;
+    private final CartLocks cartLocks;
+    private final int ttlDays;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong reclaimed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong lastRunReclaimed = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong lastRunAt = new AtomicLong();
+
+    public CartSweeper(
+            CartSweepRepository cartSweepRepository,
+            CartWriteBuffer cartWriteBuffer,
+            CartIdCache cartIdCache,
+            CartReadModel cartReadModel,
+            CartLocks cartLocks,
+            @Value("${bookstore.cart.sweeper.ttl-days:30}") int ttlDays,
+            @Value("${bookstore.cart.sweeper.batch-size:500}") int batchSize,
+            @Value("${bookstore.cart.sweeper.pause-ms:200}") long pauseMs
+    ) {
+        this.cartSweepRepository = cartSweepRepository;
+        this.cartWriteBuffer = cartWriteBuffer;
+        this.cartIdCache = cartIdCache;
+        this.cartReadModel = cartReadModel;
+        this.cartLocks = cartLocks;
+        this.ttlDays = ttlDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(
+            initialDelayString = "${bookstore.cart.sweeper.interval-ms:3600000}",
+            fixedDelayString = "${bookstore.cart.sweeper.interval-ms:3600000}"
+    )
+    public void sweep() {
+        if (ttlDays <= 0) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        long deleted = 0;
+        Timestamp afterModified = new Timestamp(0);
+        int afterCartId = 0;
+        while (true) {
+            List<CartSweepRepository.StaleCart> batch =
+                    cartSweepRepository.findStale(ttlDays, afterModified, afterCartId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            CartSweepRepository.StaleCart last = batch.get(batch.size() - 1);
+            afterModified = last.lastModified();
+            afterCartId = last.cartId();
+
+            // CARTS WITHOUT A USER CANNOT BE WRITTEN THROUGH CartService, THEY GO IN ONE STATEMENT
+            List<Integer> orphans = new ArrayList<>();
+            for (CartSweepRepository.StaleCart cart : batch) {
+                if (cart.userId() == null) {
+                    if (!cartWriteBuffer.hasPending(cart.cartId())) {
+                        orphans.add(cart.cartId());
+                    }
+                    continue;
+                }
+                try {
+                    deleted += cartLocks.call(cart.userId(), () -> deleteUserCart(cart));
+                } catch (BusinessException ex) {
+                    // THE USER IS WRITING TO THE CART RIGHT NOW, SO IT IS NOT ABANDONED
+                    skipped.incrementAndGet();
+                }
+            }
+            if (!orphans.isEmpty()) {
+                deleted += cartSweepRepository.deleteStale(orphans, ttlDays);
+            }
+            if (batch.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        runs.incrementAndGet();
+        reclaimed.addAndGet(deleted);
+        lastRunReclaimed.set(deleted);
+        lastRunMillis.set(System.currentTimeMillis() - started);
+        lastRunAt.set(started);
+    }
+
+    // CALLED UNDER THE USER'S STRIPE, RETURNS 1 IF THE CART WAS DELETED
+    private int deleteUserCart(CartSweepRepository.StaleCart cart) {
+        // UNWRITTEN WRITE-BEHIND CHANGES: THE CART IS IN USE, ITS last_modified JUST LAGS
+        if (cartWriteBuffer.hasPending(cart.cartId())) {
+            skipped.incrementAndGet();
+            return 0;
+        }
+        int deleted = cartSweepRepository.deleteStale(List.of(cart.cartId()), ttlDays);
+        if (deleted > 0) {
+            cartIdCache.evict(cart.userId());
+            cartReadModel.evict(cart.userId());
+        }
+        return deleted;
+    }
+
+    // CARTS RECLAIMED SO FAR AND HOW THE LAST RUN WENT
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("runs", runs.get());
+        stats.put("reclaimed", reclaimed.get());
+        stats.put("skipped", skipped.get());
+        stats.put("lastRunReclaimed", lastRunReclaimed.get());
+        stats.put("lastRunMillis", lastRunMillis.get());
+        stats.put("lastRunAt", lastRunAt.get());
+        return stats;
+    }
+
+    // FALSE WHEN THE APPLICATION IS SHUTTING DOWN
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
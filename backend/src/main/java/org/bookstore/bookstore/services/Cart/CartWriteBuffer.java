@@ -0,0 +1,247 @@
+package org.bookstore.bookstore.services.Cart;
+
+import jakarta.annotation.PreDestroy;
+import org.bookstore.bookstore.dtos.CartOperation;
+import org.bookstore.bookstore.repositories.CartBatchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// OPT-IN WRITE-BEHIND FOR CART CHANGES (bookstore.cart.write-behind.enabled). ADD / DECREMENT /
+// REMOVE ONLY UPDATE AN IN-MEMORY DRAFT OF THE CART; A SCHEDULED FLUSH WRITES EVERY CHANGED ROW
+// OF EVERY DRAFT IN ONE BATCHED TRANSACTION. ANYTHING THAT READS CartItems (VIEW, CHECKOUT, CLEAR)
+// FLUSHES THAT CART FIRST. ASSUMES ONE APPLICATION NODE OWNS THE CART WRITES.
+// apply() SERVES BATCHED CART EDITS IN BOTH MODES.
+@Component
+public class CartWriteBuffer {
+
+    private final CartBatchRepository cartBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxCarts;
+
+    // cart_id -> OPEN DRAFT, REMOVED AS SOON AS IT IS WRITTEN SO ONLY CARTS WITH PENDING CHANGES STAY
+    private final Map<Integer, CartDraft> drafts = new ConcurrentHashMap<>();
+
+    private final AtomicLong retriedCarts = new AtomicLong();
+    private final AtomicLong droppedCarts = new AtomicLong();
+    private final AtomicLong lastDroppedCartId = new AtomicLong();
+
+    public CartWriteBuffer(
+            CartBatchRepository cartBatchRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${bookstore.cart.write-behind.enabled:false}") boolean enabled,
+            @Value("${bookstore.cart.write-behind.max-carts:10000}") int maxCarts
+    ) {
+        this.cartBatchRepository = cartBatchRepository;
+        // ITS OWN TRANSACTION, A CHECKOUT THAT ROLLS BACK MUST NOT TAKE THE FLUSHED CART WITH IT
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.maxCarts = maxCarts;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void add(int cartId, long bookId, int quantity) {
+        change(cartId, draft -> draft.add(bookId, quantity));
+    }
+
+    public void decrement(int cartId, long bookId) {
+        change(cartId, draft -> draft.decrement(bookId));
+    }
+
+    public void remove(int cartId, long bookId) {
+        change(cartId, draft -> draft.remove(bookId));
+    }
+
+    // SEVERAL CHANGES AS ONE: ADDED TO THE DRAFT UNDER ONE LOCK WHEN WRITE-BEHIND IS ON, OTHERWISE
+    // READ, APPLIED AND WRITTEN BACK WITH BATCHED STATEMENTS IN ONE TRANSACTION
+    public void apply(int cartId, List<CartOperation> operations) {
+        if (enabled) {
+            change(cartId, draft -> operations.forEach(draft::apply));
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            CartDraft draft = new CartDraft(cartId, cartBatchRepository.lockItems(cartId));
+            operations.forEach(draft::apply);
+            cartBatchRepository.writeItems(writesOf(draft));
+        });
+    }
+
+    public boolean hasPending(int cartId) {
+        return drafts.containsKey(cartId);
+    }
+
+    // WRITE THIS CART'S PENDING CHANGES NOW, RETURNS ONCE THEY ARE COMMITTED
+    public void flush(int cartId) {
+        CartDraft draft = drafts.get(cartId);
+        if (draft != null) {
+            write(List.of(draft));
+        }
+    }
+
+    // THE CART IS BEING DELETED, ITS PENDING CHANGES NO LONGER MATTER
+    public void discard(int cartId) {
+        CartDraft draft = drafts.get(cartId);
+        if (draft == null) {
+            return;
+        }
+        draft.lock.lock();
+        try {
+            draft.closed = true;
+            drafts.remove(cartId, draft);
+        } finally {
+            draft.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.cart.write-behind.flush-ms:200}")
+    public void flushAll() {
+        if (drafts.isEmpty()) {
+            return;
+        }
+        List<CartDraft> pending = new ArrayList<>(drafts.values());
+        // SAME LOCK ORDER FOR EVERY FLUSH
+        pending.sort(Comparator.comparingInt(draft -> draft.cartId));
+        write(pending);
+    }
+
+    @PreDestroy
+    public void drain() {
+        flushAll();
+    }
+
+    // DRAFTS WAITING TO BE WRITTEN, CART WRITES KEPT FOR A RETRY AFTER A TRANSIENT ERROR, AND
+    // CARTS WHOSE CHANGES THE DATABASE REJECTED AND THAT WERE DROPPED
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("pendingCarts", (long) drafts.size());
+        stats.put("retriedCarts", retriedCarts.get());
+        stats.put("droppedCarts", droppedCarts.get());
+        stats.put("lastDroppedCartId", lastDroppedCartId.get());
+        return stats;
+    }
+
+    // APPLY ONE CHANGE TO THE CART'S DRAFT, OPENING ONE (ONE READ) WHEN THERE IS NONE
+    private void change(int cartId, Consumer<CartDraft> change) {
+        while (true) {
+            CartDraft draft = drafts.get(cartId);
+            if (draft == null) {
+                if (drafts.size() >= maxCarts) {
+                    // BACK-PRESSURE: A FULL BUFFER IS EMPTIED BY THE WRITER THAT FOUND IT FULL
+                    flushAll();
+                }
+                CartDraft opened = new CartDraft(cartId, cartBatchRepository.findItems(cartId));
+                draft = drafts.putIfAbsent(cartId, opened);
+                if (draft == null) {
+                    draft = opened;
+                }
+            }
+            draft.lock.lock();
+            try {
+                // A FLUSH WROTE AND DROPPED THIS DRAFT WHILE WE WAITED, READ THE CART AGAIN
+                if (!draft.closed) {
+                    change.accept(draft);
+                    return;
+                }
+            } finally {
+                draft.lock.unlock();
+            }
+        }
+    }
+
+    // WRITE THE DRAFTS IN ONE TRANSACTION. THEIR LOCKS ARE HELD UNTIL THE COMMIT, SO A CHANGE
+    // ARRIVING MEANWHILE WAITS AND THEN READS THE CART AS WRITTEN.
+    private void write(List<CartDraft> pending) {
+        List<CartDraft> locked = new ArrayList<>(pending.size());
+        try {
+            List<CartBatchRepository.ItemWrite> writes = new ArrayList<>();
+            for (CartDraft draft : pending) {
+                draft.lock.lock();
+                locked.add(draft);
+                if (!draft.closed) {
+                    writes.addAll(writesOf(draft));
+                }
+            }
+            if (!writes.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> cartBatchRepository.writeItems(writes));
+                } catch (DataAccessException ex) {
+                    if (pending.size() == 1) {
+                        failed(pending.get(0), ex);
+                        throw ex;
+                    }
+                    // ONE BAD CART (E.G. A BOOK DELETED SINCE IT WAS ADDED) MUST NOT BLOCK THE OTHERS
+                    writeOneByOne(pending);
+                    return;
+                }
+            }
+            close(pending);
+        } finally {
+            for (CartDraft draft : locked) {
+                draft.lock.unlock();
+            }
+        }
+    }
+
+    // CALLED WITH THE DRAFTS' LOCKS HELD
+    private void close(List<CartDraft> pending) {
+        for (CartDraft draft : pending) {
+            draft.closed = true;
+            drafts.remove(draft.cartId, draft);
+        }
+    }
+
+    // CALLED WITH ALL LOCKS HELD
+    private void writeOneByOne(List<CartDraft> pending) {
+        for (CartDraft draft : pending) {
+            if (draft.closed || !draft.isDirty()) {
+                close(List.of(draft));
+                continue;
+            }
+            List<CartBatchRepository.ItemWrite> writes = writesOf(draft);
+            try {
+                transactionTemplate.executeWithoutResult(status -> cartBatchRepository.writeItems(writes));
+                close(List.of(draft));
+            } catch (DataAccessException ex) {
+                failed(draft, ex);
+            }
+        }
+    }
+
+    // CALLED WITH THE DRAFT'S LOCK HELD. DEADLOCKS, LOCK WAIT TIMEOUTS AND AN UNREACHABLE DATABASE
+    // KEEP THE DRAFT FOR THE NEXT FLUSH (THE WRITES ARE FINAL QUANTITIES, SO REPEATING THEM IS SAFE).
+    // A CART THE DATABASE REJECTS, E.G. FOR A BOOK DELETED SINCE IT WAS ADDED, WOULD FAIL FOREVER:
+    // IT IS DROPPED AND COUNTED, AND READ AGAIN FROM THE DATABASE ON ITS NEXT CHANGE.
+    private void failed(CartDraft draft, DataAccessException ex) {
+        if (ex instanceof NonTransientDataAccessException && !(ex instanceof DataAccessResourceFailureException)) {
+            close(List.of(draft));
+            droppedCarts.incrementAndGet();
+            lastDroppedCartId.set(draft.cartId);
+        } else {
+            retriedCarts.incrementAndGet();
+        }
+    }
+
+    private static List<CartBatchRepository.ItemWrite> writesOf(CartDraft draft) {
+        List<CartBatchRepository.ItemWrite> writes = new ArrayList<>();
+        for (Map.Entry<Long, Integer> change : draft.changes().entrySet()) {
+            writes.add(new CartBatchRepository.ItemWrite(draft.cartId, change.getKey(), change.getValue()));
+        }
+        return writes;
+    }
+}
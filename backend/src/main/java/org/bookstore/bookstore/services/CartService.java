@@ -1,88 +1,188 @@
 package org.bookstore.bookstore.services;
 
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.bookstore.bookstore.dtos.BookResponse;
 import org.bookstore.bookstore.dtos.CartDto;
 import org.bookstore.bookstore.dtos.CartItemDto;
+import org.bookstore.bookstore.dtos.CartOperation;
+import org.bookstore.bookstore.dtos.CartResponse;
 import org.bookstore.bookstore.dtos.CheckoutRequest;
 import org.bookstore.bookstore.entities.*;
 import org.bookstore.bookstore.exceptions.BusinessException;
-import org.bookstore.bookstore.mappers.CartMapper;
 import org.bookstore.bookstore.repositories.*;
+import org.bookstore.bookstore.repositories.BookStockRepository.StockRow;
+import org.bookstore.bookstore.services.Cart.CartIdCache;
+import org.bookstore.bookstore.services.Cart.CartLocks;
+import org.bookstore.bookstore.services.Cart.CartReadModel;
+import org.bookstore.bookstore.services.Cart.CartWriteBuffer;
+import org.bookstore.bookstore.utils.Money;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 
 @AllArgsConstructor
 @Service
 public class CartService {
+    private static final int MAX_CART_OPERATIONS = 100;
+    private static final Set<String> CART_OPERATIONS = Set.of("add", "decrement", "remove");
+
     private final CartRepository cartRepository;
-    private final UserRepository userRepository;
-    private final BookRepository bookRepository;
+    private final BookStockRepository bookStockRepository;
     private final CartItemRepository cartItemRepository;
-    private final CartMapper cartMapper;
     private final PaymentService paymentService;
     private final CustomerOrderRepository  customerOrderRepository;
     private final CustomerOrderItemRepository customerOrderItemRepository;
     private final BookService bookService;
-
+    private final CartWriteBuffer cartWriteBuffer;
+    private final CartIdCache cartIdCache;
+    private final CartReadModel cartReadModel;
+    private final CartBatchRepository cartBatchRepository;
+    private final CartLocks cartLocks;
+    private final PlatformTransactionManager transactionManager;
+
+    // EVERY CART WRITE RUNS UNDER THE USER'S CartLocks STRIPE
     public void addToCart(Integer userId, int bookId, int quantity) {
 
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseGet(() -> createCartForUser(userId));
-
-        Book book = bookRepository.findById(bookId)
+        BookResponse book = bookService.findBookById(bookId)
                 .orElseThrow(() -> new BusinessException("Book not found"));
 
-        cartItemRepository.addToCart(
-                cart.getId(),
-                book.getBookID().longValue(),
-                quantity
-        );
+        cartLocks.run(userId, () -> {
+            int cartId = findOrCreateCartId(userId);
+
+            if (cartWriteBuffer.isEnabled()) {
+                cartWriteBuffer.add(cartId, book.getBookID().longValue(), quantity);
+            } else {
+                cartItemRepository.addToCart(
+                        cartId,
+                        book.getBookID().longValue(),
+                        quantity
+                );
+            }
+            cartReadModel.evict(userId);
+        });
     }
 
 
-    public CartDto getCartDetails(Integer userId) {
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseGet(() -> createCartForUser(userId));
+    // MANY CART EDITS IN ONE REQUEST, APPLIED IN ORDER AND ALL OR NOTHING. RETURNS THE NEW CART.
+    public CartDto applyOperations(Integer userId, List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new BusinessException("No cart operations given");
+        }
+        if (operations.size() > MAX_CART_OPERATIONS) {
+            throw new BusinessException("At most " + MAX_CART_OPERATIONS + " cart operations per request");
+        }
+        Set<Integer> addedBooks = new LinkedHashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getOp() == null || !CART_OPERATIONS.contains(operation.getOp())) {
+                throw new BusinessException("Unsupported cart operation: " + operation.getOp());
+            }
+            if (operation.getBookId() == null) {
+                throw new BusinessException("Book id is required");
+            }
+            if ("add".equals(operation.getOp())) {
+                if (operation.getQuantity() != null && operation.getQuantity() < 1) {
+                    throw new BusinessException("Quantity must be positive");
+                }
+                addedBooks.add(operation.getBookId().intValue());
+            }
+        }
+        // ONE LOOKUP (MOSTLY FROM THE BOOK CACHE) FOR EVERY BOOK BEING ADDED
+        if (!addedBooks.isEmpty()) {
+            List<Integer> missing = bookService.findBooks(new ArrayList<>(addedBooks), null).getMissingIds();
+            if (!missing.isEmpty()) {
+                throw new BusinessException("Book not found: " + missing.get(0));
+            }
+        }
 
-        return cartMapper.toDto(cart);
+        return cartLocks.call(userId, () -> {
+            cartWriteBuffer.apply(findOrCreateCartId(userId), operations);
+            cartReadModel.evict(userId);
+            return getCartDetails(userId);
+        });
     }
 
+    public CartDto getCartDetails(Integer userId) {
+        CartResponse cart = cartReadModel.read(userId);
+        if (cart == null) {
+            createCartForUser(userId);
+            return new CartDto(BigDecimal.ZERO, List.of());
+        }
+        return new CartDto(cart.getCartTotal(), cart.getItems());
+    }
 
-    public void removeItem(Integer userId, Long bookId) {
 
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseThrow(() -> new BusinessException("Cart not found"));
+    public void removeItem(Integer userId, Long bookId) {
+        cartLocks.run(userId, () -> {
+            int cartId = findCartId(userId);
 
-        cartItemRepository.removeFromCart(cart.getId(), bookId);
+            if (cartWriteBuffer.isEnabled()) {
+                cartWriteBuffer.remove(cartId, bookId);
+            } else {
+                cartItemRepository.removeFromCart(cartId, bookId);
+            }
+            cartReadModel.evict(userId);
+        });
     }
 
     public void decrementQuantity(Integer userId, Long bookId) {
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseThrow(() -> new BusinessException("Cart not found"));
-
-        cartItemRepository.decrementQuantity(cart.getId(), bookId);
-        cartItemRepository.removeIfZero(cart.getId(), bookId);
+        cartLocks.run(userId, () -> {
+            int cartId = findCartId(userId);
+
+            if (cartWriteBuffer.isEnabled()) {
+                cartWriteBuffer.decrement(cartId, bookId);
+            } else if (cartItemRepository.decrementAboveOne(cartId, bookId) == 0) {
+                // AT ONE (OR NOT IN THE CART): THE ROW GOES, NO ZERO-QUANTITY ROW IS EVER WRITTEN
+                cartItemRepository.removeLastCopy(cartId, bookId);
+            }
+            cartReadModel.evict(userId);
+        });
     }
 
 
     public void clearCart(Integer userId) {
+        cartLocks.run(userId, () -> {
+            int cartId = findCartId(userId);
+
+            cartWriteBuffer.discard(cartId);
+            cartRepository.deleteCartByUserId(userId);
+            cartIdCache.evict(userId);
+            cartReadModel.evict(userId);
+        });
+    }
 
-        Cart cart = cartRepository.findByUser_UserId(userId)
-                .orElseThrow(() -> new BusinessException("Cart not found"));
 
-        cartRepository.deleteCartByUserId(userId);
+    // UNDER THE USER'S LOCK, SO NO CART WRITE CAN LAND BETWEEN READING THE CART AND CLEARING IT.
+    // BUFFERED CHANGES ARE WRITTEN BEFORE THE TRANSACTION STARTS: ITS SNAPSHOT IS TAKEN AT THE
+    // FIRST READ AND WOULD NOT SEE ROWS COMMITTED AFTER THAT.
+    public void checkoutCart(Integer userId, CheckoutRequest credit_card) {
+        cartLocks.run(userId, () -> {
+            flushCart(userId);
+            new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> placeOrder(userId, credit_card));
+        });
     }
 
+    // WRITE THE USER'S BUFFERED CART CHANGES
+    private void flushCart(Integer userId) {
+        if (!cartWriteBuffer.isEnabled()) {
+            return;
+        }
+        Integer cartId = cartIdCache.get(userId);
+        if (cartId != null) {
+            cartWriteBuffer.flush(cartId);
+            return;
+        }
+        cartRepository.findCartIdByUserId(userId).ifPresent(cartWriteBuffer::flush);
+    }
 
-    @Transactional
-    public void checkoutCart(Integer userId, CheckoutRequest credit_card) {
+    private void placeOrder(Integer userId, CheckoutRequest credit_card) {
         paymentService.validCredintials(userId, credit_card);
 
         Cart cart = cartRepository.findByUser_UserId(userId)
@@ -92,19 +192,44 @@ public class CartService {
 
         List<CartItem> before= cart.getItems();
 
-        //System.out.println("am hereee ");
-        CartDto cartDto = cartMapper.toDto(cart);
-        BigDecimal totalPrice = cartDto.getTotalPrice();
+        Money totalPrice = Money.ZERO;
+        for (CartItem item : before) {
+            totalPrice = totalPrice.plus(item.getSubTotalMoney());
+        }
 
-        if (totalPrice == null || totalPrice.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!totalPrice.isPositive()) {
             throw new BusinessException("Cart is empty");
         }
 
+        List<Integer> bookIds = new ArrayList<>(before.size());
+        for (CartItem item : before) {
+            bookIds.add(item.getBook().getBookID());
+        }
+
+        // LOCK THE BOOK ROWS IN BookID ORDER FIRST: MySQL PICKS THE JOIN ORDER OF THE MULTI-TABLE
+        // UPDATE BELOW, SO ITS OWN LOCK ORDER IS NOT FIXED AND TWO CHECKOUTS COULD DEADLOCK.
+        // THEN RESERVE EVERY LINE IN ONE CONDITIONAL UPDATE BEFORE ANYTHING IS WRITTEN. EACH ROW IS
+        // CHECKED AND DECREMENTED ON ITS CURRENT (LOCKED) VALUE, SO CONCURRENT CHECKOUTS OF THE SAME
+        // BOOK QUEUE ON ITS ROW AND NONE OF THEM IS LOST. A SHORT LINE MATCHES NO ROW, THROWING
+        // ROLLS BACK THE LINES ALREADY RESERVED. A LINE THE LOCKED STOCK ALREADY CANNOT COVER FAILS
+        // BEFORE THE UPDATE.
+        Map<Integer, StockRow> stock = bookStockRepository.lockStock(bookIds);
+        for (CartItem item : before) {
+            StockRow row = stock.get(item.getBook().getBookID());
+            if (item.getQuantity() > 0 && (row == null || row.quantity() == null || row.quantity() < item.getQuantity())) {
+                throw new BusinessException("number of book is not sufficient");
+            }
+        }
+        long lines = before.stream().filter(item -> item.getQuantity() > 0).count();
+        if (bookStockRepository.reserveCartStock(cartId) != lines) {
+            throw new BusinessException("number of book is not sufficient");
+        }
+
         //create and insert order
 
         customerOrderRepository.insertCustomerOrder(
                 userId,
-                totalPrice,
+                totalPrice.toBigDecimal(),
                 "PROCESSING",
                 Timestamp.valueOf(LocalDateTime.now())
         );
@@ -113,38 +238,51 @@ public class CartService {
 
         customerOrderItemRepository.insertOrderItemsFromCart(orderId, cartId);
 
-
-        for(var item : before)
-        {
-            var book=item.getBook();
-
-            if(book.getNumberOfBooks() < item.getQuantity())
-            {
-                throw new BusinessException("number of book is not sufficient");
-            }
-
-            bookService.updateBookStock(book.getBookID(),book.getNumberOfBooks()-item.getQuantity());
-        }
-
-
-
-
+        bookService.stockChanged(bookIds);
 
         cartItemRepository.clearCart(cartId);
+        cartReadModel.evict(userId);
     }
 
 
 
 
-    private Cart createCartForUser(Integer userId) {
+    // CART ID OF THE USER FROM THE CACHE, ONE INDEXED LOOKUP ON A MISS
+    private int findCartId(Integer userId) {
+        Integer cartId = cartIdCache.get(userId);
+        if (cartId != null) {
+            return cartId;
+        }
+        cartId = cartRepository.findCartIdByUserId(userId)
+                .orElseThrow(() -> new BusinessException("Cart not found"));
+        cartIdCache.put(userId, cartId);
+        return cartId;
+    }
 
-        if (!userRepository.existsById(userId)) {
-            throw new BusinessException("User not found");
+    private int findOrCreateCartId(Integer userId) {
+        Integer cartId = cartIdCache.get(userId);
+        if (cartId != null) {
+            return cartId;
+        }
+        Optional<Integer> existing = cartRepository.findCartIdByUserId(userId);
+        if (existing.isPresent()) {
+            cartIdCache.put(userId, existing.get());
+            return existing.get();
         }
-        cartRepository.insertCartForUser(userId);
+        return createCartForUser(userId);
+    }
 
-        return cartRepository.findByUser_UserId(userId)
-                .orElseThrow(() -> new BusinessException("Cart creation failed"));
+    // ONE STATEMENT, SAFE TO RACE: A CONCURRENT CREATE OF THE SAME CART RETURNS THE SAME ID
+    private int createCartForUser(Integer userId) {
+        int cartId;
+        try {
+            cartId = cartBatchRepository.findOrInsertCart(userId);
+        } catch (DataIntegrityViolationException ex) {
+            // FOREIGN KEY ON Carts.user_id
+            throw new BusinessException("User not found");
+        }
+        cartIdCache.put(userId, cartId);
+        return cartId;
     }
 
 
@@ -0,0 +1,104 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// SEARCH-BOX SUGGESTIONS FOR TITLES, AUTHOR NAMES AND PUBLISHER NAMES.
+// A BOOK WEIGHS 1 + COPIES SOLD; AN AUTHOR OR PUBLISHER WEIGHS THE SUM OF ITS BOOKS.
+@Component
+public class AutocompleteIndex implements CatalogIndex {
+
+    public static final List<String> TYPES = List.of("title", "author", "publisher");
+
+    private final SuggestionDictionary titles = new SuggestionDictionary();
+    private final SuggestionDictionary authors = new SuggestionDictionary();
+    private final SuggestionDictionary publishers = new SuggestionDictionary();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Suggestion(String text, String type, long weight) {
+    }
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            authors.clear();
+            publishers.clear();
+            for (CatalogEntry entry : entries) {
+                long weight = weight(entry);
+                titles.load(entry.getBookId(), List.of(entry.getTitle()), weight);
+                authors.load(entry.getBookId(), entry.getAuthors(), weight);
+                publishers.load(entry.getBookId(), List.of(entry.getPublisher()), weight);
+            }
+            titles.merge();
+            authors.merge();
+            publishers.merge();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            long weight = weight(entry);
+            titles.put(entry.getBookId(), List.of(entry.getTitle()), weight);
+            authors.put(entry.getBookId(), entry.getAuthors(), weight);
+            publishers.put(entry.getBookId(), List.of(entry.getPublisher()), weight);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            titles.remove(bookId);
+            authors.remove(bookId);
+            publishers.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // UP TO limit SUGGESTIONS FOR WHAT THE USER TYPED SO FAR (type = title | author | publisher | all)
+    public List<Suggestion> suggest(String prefix, String type, int limit) {
+        String normalized = SuggestionDictionary.normalizeLabel(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        List<Suggestion> suggestions = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (String candidate : TYPES) {
+                if ("all".equals(type) || candidate.equals(type)) {
+                    for (SuggestionDictionary.Match match : dictionary(candidate).top(normalized, limit)) {
+                        suggestions.add(new Suggestion(match.label(), candidate, match.weight()));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        suggestions.sort(Comparator.comparingLong(Suggestion::weight).reversed());
+        return suggestions.size() <= limit ? suggestions : new ArrayList<>(suggestions.subList(0, limit));
+    }
+
+    private SuggestionDictionary dictionary(String type) {
+        return switch (type) {
+            case "title" -> titles;
+            case "author" -> authors;
+            default -> publishers;
+        };
+    }
+
+    private static long weight(CatalogEntry entry) {
+        return 1 + Math.max(0, entry.getSold());
+    }
+}
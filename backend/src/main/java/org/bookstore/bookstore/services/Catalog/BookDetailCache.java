@@ -0,0 +1,222 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.bookstore.bookstore.dtos.BookResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// READ-THROUGH CACHE OF BOOK DETAILS BY BookID (LRU, BOUNDED, PER-ENTRY TTL). HOLDS IMMUTABLE
+// BookResponse SNAPSHOTS, NEVER ENTITIES, SO EVERY CALLER CAN SHARE THE SAME INSTANCE SAFELY.
+// ISBN LOOKUPS GO THROUGH A DIRECTORY OF NORMALIZED ISBN -> BookID THAT COVERS THE WHOLE CATALOG.
+@Component
+public class BookDetailCache implements CatalogIndex {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Integer, Cached> books;
+    private final Map<String, Integer> bookIdByIsbn = new ConcurrentHashMap<>();
+    private final Map<Integer, String> isbnByBookId = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    // GENERATION PER BookID (STRIPED, SO IT STAYS BOUNDED), BUMPED WHEN THAT BOOK IS INVALIDATED.
+    // A LOAD THAT RACED WITH A WRITE OF ITS OWN BOOK IS NOT CACHED, WRITES OF OTHER BOOKS DO NOT MATTER.
+    private static final int GENERATION_STRIPES = 4096;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    // BUMPED ON EVERY INVALIDATION, FOR ISBN LOADS WHOSE BookID IS ONLY KNOWN AFTERWARDS
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record Cached(BookResponse book, long expiresAt) {
+    }
+
+    public BookDetailCache(@Value("${bookstore.catalog.cache.max-size:10000}") int maxSize,
+                           @Value("${bookstore.catalog.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.books = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Cached> eldest) {
+                if (size() > BookDetailCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // BOOK BY ID, LOADED WITH THE GIVEN LOADER ON A MISS
+    public Optional<BookResponse> get(Integer bookId, Function<Integer, Optional<BookResponse>> loader) {
+        BookResponse cached = lookup(bookId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+        misses.incrementAndGet();
+        long generation = generation(bookId);
+        Optional<BookResponse> loaded = loader.apply(bookId);
+        loaded.ifPresent(book -> store(book, generation));
+        return loaded;
+    }
+
+    // MANY BOOKS BY ID, ALL MISSES ARE LOADED WITH ONE CALL OF THE LOADER
+    public Map<Integer, BookResponse> getAll(Collection<Integer> bookIds, Function<Collection<Integer>, List<BookResponse>> loader) {
+        Map<Integer, BookResponse> found = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer bookId : bookIds) {
+            if (found.containsKey(bookId) || missing.contains(bookId)) {
+                continue;
+            }
+            BookResponse cached = lookup(bookId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                found.put(bookId, cached);
+            } else {
+                misses.incrementAndGet();
+                missing.add(bookId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Integer, Long> generationById = new HashMap<>();
+            for (Integer bookId : missing) {
+                generationById.put(bookId, generation(bookId));
+            }
+            for (BookResponse book : loader.apply(missing)) {
+                Long generation = generationById.get(book.getBookID());
+                if (generation != null) {
+                    store(book, generation);
+                }
+                found.put(book.getBookID(), book);
+            }
+        }
+        return found;
+    }
+
+    // BookID FOR AN ISBN IN ANY SPELLING, NULL WHEN THE DIRECTORY DOES NOT KNOW IT
+    public Integer findBookId(String isbn) {
+        return bookIdByIsbn.get(Isbn.normalize(isbn));
+    }
+
+    // BOOK BY ISBN IN ANY SPELLING; FALLS BACK TO THE LOADER FOR ISBNS THE DIRECTORY DOES NOT KNOW
+    public Optional<BookResponse> getByIsbn(String isbn, Function<Integer, Optional<BookResponse>> byId, Supplier<Optional<BookResponse>> byIsbn) {
+        Integer bookId = bookIdByIsbn.get(Isbn.normalize(isbn));
+        if (bookId != null) {
+            return get(bookId, byId);
+        }
+        misses.incrementAndGet();
+        long invalidated = invalidations.get();
+        Optional<BookResponse> loaded = byIsbn.get();
+        loaded.ifPresent(book -> {
+            long generation = generation(book.getBookID());
+            if (invalidations.get() == invalidated) {
+                store(book, generation);
+            }
+        });
+        return loaded;
+    }
+
+    // DROP A BOOK WHOSE ROW CHANGED
+    public void evict(Integer bookId) {
+        generations.incrementAndGet(stripe(bookId));
+        invalidations.incrementAndGet();
+        synchronized (books) {
+            books.remove(bookId);
+        }
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        synchronized (books) {
+            stats.put("size", (long) books.size());
+        }
+        stats.put("isbns", (long) bookIdByIsbn.size());
+        return stats;
+    }
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        invalidations.incrementAndGet();
+        synchronized (books) {
+            books.clear();
+        }
+        bookIdByIsbn.clear();
+        isbnByBookId.clear();
+        for (CatalogEntry entry : entries) {
+            register(entry);
+        }
+    }
+
+    @Override
+    public void put(CatalogEntry entry) {
+        evict(entry.getBookId());
+        unregister(entry.getBookId());
+        register(entry);
+    }
+
+    @Override
+    public void remove(int bookId) {
+        evict(bookId);
+        unregister(bookId);
+    }
+
+    private BookResponse lookup(Integer bookId) {
+        synchronized (books) {
+            Cached cached = books.get(bookId);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt() - System.nanoTime() < 0) {
+                books.remove(bookId);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return cached.book();
+        }
+    }
+
+    private long generation(Integer bookId) {
+        return generations.get(stripe(bookId));
+    }
+
+    private static int stripe(Integer bookId) {
+        return Math.floorMod(bookId, GENERATION_STRIPES);
+    }
+
+    // CACHE A LOADED BOOK UNLESS ITS GENERATION MOVED WHILE IT WAS LOADING
+    private void store(BookResponse book, long generation) {
+        synchronized (books) {
+            if (generation(book.getBookID()) == generation) {
+                books.put(book.getBookID(), new Cached(book, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+
+    private void register(CatalogEntry entry) {
+        String isbn = Isbn.normalize(entry.getIsbn());
+        if (isbn != null && !isbn.isEmpty()) {
+            bookIdByIsbn.put(isbn, entry.getBookId());
+            isbnByBookId.put(entry.getBookId(), isbn);
+        }
+    }
+
+    private void unregister(int bookId) {
+        String isbn = isbnByBookId.remove(bookId);
+        if (isbn != null) {
+            bookIdByIsbn.remove(isbn, bookId);
+        }
+    }
+}
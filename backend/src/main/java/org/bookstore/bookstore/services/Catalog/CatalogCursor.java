@@ -0,0 +1,41 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bookstore.bookstore.exceptions.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// OPAQUE KEYSET CURSOR: THE SORT IT BELONGS TO PLUS THE LAST ROW OF THE PREVIOUS PAGE
+@Getter
+@AllArgsConstructor
+public class CatalogCursor {
+
+    private final String sort;
+    private final int lastId;
+    private final String lastTitle;
+
+    public String encode() {
+        String raw = sort + "\n" + lastId + "\n" + (lastTitle == null ? "" : lastTitle);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // NULL TOKEN MEANS FIRST PAGE
+    public static CatalogCursor decode(String token, String expectedSort) {
+        if (token == null || token.isBlank()) {
+            return new CatalogCursor(expectedSort, 0, "");
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 3);
+            if (parts.length != 3 || !parts[0].equals(expectedSort)) {
+                throw new BusinessException("Invalid cursor");
+            }
+            return new CatalogCursor(parts[0], Integer.parseInt(parts[1]), parts[2]);
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// ONE BOOK AS SEEN BY THE IN-MEMORY CATALOG INDEXES
+@Getter
+@AllArgsConstructor
+public class CatalogEntry {
+
+    private final int bookId;
+    private final String title;
+    private final String publisher;
+    private final String category;
+    private final Integer publicationYear;
+    private final BigDecimal sellingPrice;
+    private final String isbn;
+    // COPIES SOLD SO FAR, THE POPULARITY SIGNAL FOR RANKING
+    private final long sold;
+    private final List<String> authors;
+
+    // ROWS ARE (BookID, Title, Publisher.Name, Category, PublicationYear, SellingPrice, ISBN, Author.Name, Sold),
+    // ONE ROW PER AUTHOR
+    public static List<CatalogEntry> fromRows(List<Object[]> rows) {
+        Map<Integer, CatalogEntry> entries = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            int bookId = ((Number) row[0]).intValue();
+            CatalogEntry entry = entries.computeIfAbsent(
+                    bookId,
+                    id -> new CatalogEntry(
+                            id,
+                            (String) row[1],
+                            (String) row[2],
+                            (String) row[3],
+                            row[4] == null ? null : ((Number) row[4]).intValue(),
+                            (BigDecimal) row[5],
+                            (String) row[6],
+                            row[8] == null ? 0 : ((Number) row[8]).longValue(),
+                            new ArrayList<>()
+                    )
+            );
+            if (row[7] != null) {
+                entry.authors.add((String) row[7]);
+            }
+        }
+        return new ArrayList<>(entries.values());
+    }
+}
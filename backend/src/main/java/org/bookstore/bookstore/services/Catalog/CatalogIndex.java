@@ -0,0 +1,13 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import java.util.Collection;
+
+// IN-MEMORY STRUCTURE KEPT IN SYNC WITH THE BOOKS TABLE BY CatalogIndexer
+public interface CatalogIndex {
+
+    void rebuild(Collection<CatalogEntry> entries);
+
+    void put(CatalogEntry entry);
+
+    void remove(int bookId);
+}
@@ -0,0 +1,221 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import jakarta.annotation.PreDestroy;
+import org.bookstore.bookstore.repositories.BookRepository;
+import org.bookstore.bookstore.repositories.CatalogSyncRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.*;
+
+@Service
+public class CatalogIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndexer.class);
+
+    // A TRANSACTION THAT COMMITS AFTER A SYNC CAN CARRY AN OLDER LastModified,
+    // SO EVERY SYNC ALSO RE-READS THIS MUCH BEFORE THE PREVIOUS ONE
+    private static final long SYNC_OVERLAP_MILLIS = 60_000;
+
+    private final BookRepository bookRepository;
+    private final CatalogSyncRepository catalogSyncRepository;
+    private final List<CatalogIndex> indexes;
+    private final Path snapshotFile;
+
+    // THE CATALOG AS LAST LOADED, AND THE DATABASE TIME IT IS KNOWN TO BE CURRENT UP TO
+    private final Map<Integer, CatalogEntry> entries = new LinkedHashMap<>();
+    private long syncedAt;
+    private volatile boolean ready;
+
+    public CatalogIndexer(BookRepository bookRepository,
+                          CatalogSyncRepository catalogSyncRepository,
+                          List<CatalogIndex> indexes,
+                          @Value("${bookstore.catalog.snapshot.path:}") String snapshotPath) {
+        this.bookRepository = bookRepository;
+        this.catalogSyncRepository = catalogSyncRepository;
+        this.indexes = indexes;
+        this.snapshotFile = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+    }
+
+    // WARM START FROM THE SNAPSHOT FILE WHEN THERE IS ONE AND CATCH UP WITH THE DATABASE IN THE
+    // BACKGROUND, OTHERWISE LOAD THE WHOLE CATALOG FROM THE DATABASE
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        CatalogSnapshot.Loaded snapshot = readSnapshot();
+        if (snapshot == null) {
+            rebuild();
+            return;
+        }
+        load(snapshot.entries(), snapshot.syncedAtMillis());
+        Thread reconcile = new Thread(this::reconcile, "catalog-reconcile");
+        reconcile.setDaemon(true);
+        reconcile.start();
+    }
+
+    // LOAD THE WHOLE CATALOG FROM THE DATABASE
+    public synchronized void rebuild() {
+        long now = catalogSyncRepository.currentTime().getTime();
+        load(CatalogEntry.fromRows(bookRepository.findCatalogRows()), now);
+    }
+
+    // RE-READ ONE BOOK AFTER IT WAS INSERTED OR CHANGED
+    public synchronized void refresh(Integer bookId) {
+        if (!ready || bookId == null) {
+            return;
+        }
+        List<CatalogEntry> rows = CatalogEntry.fromRows(bookRepository.findCatalogRowsByBookId(bookId));
+        if (rows.isEmpty()) {
+            remove(bookId);
+            return;
+        }
+        put(rows.get(0));
+    }
+
+    // RE-READ MANY BOOKS AT ONCE (BULK WRITES), ONE QUERY PER 1000 IDS
+    public synchronized void refresh(Collection<Integer> bookIds) {
+        if (!ready || bookIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        for (int from = 0; from < ids.size(); from += 1000) {
+            List<Integer> batch = ids.subList(from, Math.min(from + 1000, ids.size()));
+            Set<Integer> missing = new HashSet<>(batch);
+            for (CatalogEntry entry : CatalogEntry.fromRows(bookRepository.findCatalogRowsByBookIds(batch))) {
+                missing.remove(entry.getBookId());
+                put(entry);
+            }
+            for (Integer bookId : missing) {
+                remove(bookId);
+            }
+        }
+    }
+
+    public synchronized void remove(Integer bookId) {
+        if (!ready || bookId == null) {
+            return;
+        }
+        entries.remove(bookId);
+        for (CatalogIndex index : indexes) {
+            index.remove(bookId);
+        }
+    }
+
+    // APPLY EVERY BOOK WRITTEN SINCE THE LAST SYNC (Books.LastModified), E.G. STOCK CHANGED BY TRIGGERS.
+    // RUNS ON ITS OWN SCHEDULE, WITH OR WITHOUT A SNAPSHOT FILE.
+    @Scheduled(
+            initialDelayString = "${bookstore.catalog.sync.interval-ms:30000}",
+            fixedDelayString = "${bookstore.catalog.sync.interval-ms:30000}"
+    )
+    public synchronized void sync() {
+        if (!ready) {
+            return;
+        }
+        long now = catalogSyncRepository.currentTime().getTime();
+        Timestamp since = new Timestamp(syncedAt - SYNC_OVERLAP_MILLIS);
+        for (CatalogEntry entry : CatalogEntry.fromRows(bookRepository.findCatalogRowsModifiedSince(since.toLocalDateTime()))) {
+            put(entry);
+        }
+        syncedAt = now;
+    }
+
+    // CATCH UP AND WRITE A FRESH SNAPSHOT, SO A RESTART AFTER A CRASH STILL STARTS WARM. THE SYNC
+    // HERE ONLY KEEPS THE FILE CURRENT, THE INDEXES ARE SYNCED BY sync()'S OWN SCHEDULE.
+    @Scheduled(
+            initialDelayString = "${bookstore.catalog.snapshot.interval-ms:300000}",
+            fixedDelayString = "${bookstore.catalog.snapshot.interval-ms:300000}"
+    )
+    public void syncAndSnapshot() {
+        if (snapshotFile == null || !ready) {
+            return;
+        }
+        sync();
+        writeSnapshot();
+    }
+
+    // NO DATABASE ACCESS HERE, THE DATASOURCE MAY ALREADY BE SHUTTING DOWN. THE NEXT START
+    // RE-READS EVERYTHING WRITTEN AFTER THE LAST SYNC ANYWAY.
+    @PreDestroy
+    public void shutdown() {
+        writeSnapshot();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private synchronized void load(List<CatalogEntry> catalog, long syncedAtMillis) {
+        entries.clear();
+        for (CatalogEntry entry : catalog) {
+            entries.put(entry.getBookId(), entry);
+        }
+        for (CatalogIndex index : indexes) {
+            index.rebuild(catalog);
+        }
+        syncedAt = syncedAtMillis;
+        ready = true;
+    }
+
+    private void put(CatalogEntry entry) {
+        entries.put(entry.getBookId(), entry);
+        for (CatalogIndex index : indexes) {
+            index.put(entry);
+        }
+    }
+
+    // AFTER A WARM START: PICK UP THE WRITES MADE SINCE THE SNAPSHOT AND DROP DELETED BOOKS,
+    // WHICH LastModified CANNOT SHOW. IF THAT FAILS THE SNAPSHOT CANNOT BE TRUSTED TO BE CAUGHT UP,
+    // SO LOAD THE WHOLE CATALOG INSTEAD.
+    private void reconcile() {
+        try {
+            sync();
+            Set<Integer> existing = new HashSet<>(bookRepository.findAllBookIds());
+            synchronized (this) {
+                for (Integer bookId : new ArrayList<>(entries.keySet())) {
+                    if (!existing.contains(bookId)) {
+                        remove(bookId);
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Could not reconcile the catalog snapshot with the database, rebuilding the catalog", ex);
+            try {
+                rebuild();
+            } catch (RuntimeException rebuildFailed) {
+                log.error("Could not rebuild the catalog, serving the snapshot until the next sync", rebuildFailed);
+            }
+        }
+    }
+
+    private CatalogSnapshot.Loaded readSnapshot() {
+        if (snapshotFile == null) {
+            return null;
+        }
+        try {
+            return CatalogSnapshot.read(snapshotFile);
+        } catch (IOException | RuntimeException ex) {
+            // AN UNREADABLE SNAPSHOT ONLY MEANS A COLD START
+            log.warn("Could not read the catalog snapshot {}, loading the catalog from the database", snapshotFile, ex);
+            return null;
+        }
+    }
+
+    private synchronized void writeSnapshot() {
+        if (snapshotFile == null || !ready) {
+            return;
+        }
+        try {
+            CatalogSnapshot.write(snapshotFile, syncedAt, entries.values());
+        } catch (IOException ex) {
+            // A MISSING SNAPSHOT ONLY MEANS A SLOWER NEXT START
+            log.warn("Could not write the catalog snapshot {}", snapshotFile, ex);
+        }
+    }
+}
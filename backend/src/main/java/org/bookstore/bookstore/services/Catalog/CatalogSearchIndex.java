@@ -0,0 +1,92 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class CatalogSearchIndex implements CatalogIndex {
+
+    private final TokenIndex titles = new TokenIndex();
+    private final TokenIndex authors = new TokenIndex();
+    private final TokenIndex publishers = new TokenIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            authors.clear();
+            publishers.clear();
+            for (CatalogEntry entry : entries) {
+                index(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            titles.remove(bookId);
+            authors.remove(bookId);
+            publishers.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // SEARCH BY TITLE, UP TO limit IDS GREATER THAN afterId
+    public List<Integer> searchTitles(String query, int afterId, int limit) {
+        return search(titles, query, afterId, limit);
+    }
+
+    // SEARCH BY AUTHOR, UP TO limit IDS GREATER THAN afterId
+    public List<Integer> searchAuthors(String query, int afterId, int limit) {
+        return search(authors, query, afterId, limit);
+    }
+
+    // SEARCH BY PUBLISHER, UP TO limit IDS GREATER THAN afterId
+    public List<Integer> searchPublishers(String query, int afterId, int limit) {
+        return search(publishers, query, afterId, limit);
+    }
+
+    private void index(CatalogEntry entry) {
+        titles.put(entry.getBookId(), List.of(entry.getTitle()));
+        authors.put(entry.getBookId(), entry.getAuthors());
+        publishers.put(entry.getBookId(), List.of(entry.getPublisher()));
+    }
+
+    private List<Integer> search(TokenIndex index, String query, int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Integer> page = new ArrayList<>(Math.min(limit, 64));
+            for (Integer bookId : index.search(query).tailSet(afterId, false)) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(bookId);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
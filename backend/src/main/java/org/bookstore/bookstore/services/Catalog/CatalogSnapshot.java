@@ -0,0 +1,165 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+// BINARY FILE WITH EVERY CatalogEntry AND THE DATABASE TIME THEY ARE CURRENT UP TO.
+// LAYOUT (BIG-ENDIAN): MAGIC, FORMAT, SYNCED-AT MILLIS, COUNT, ENTRIES..., CRC32 OF EVERYTHING BEFORE IT.
+// STRINGS ARE A LENGTH (-1 = NULL) FOLLOWED BY UTF-8 BYTES.
+public final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x424B4353; // "BKCS"
+    private static final int FORMAT = 2;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+
+    public record Loaded(long syncedAtMillis, List<CatalogEntry> entries) {
+    }
+
+    private CatalogSnapshot() {
+    }
+
+    // WRITE TO A TEMP FILE FIRST SO A CRASH NEVER LEAVES A HALF-WRITTEN SNAPSHOT BEHIND
+    public static void write(Path file, long syncedAtMillis, Collection<CatalogEntry> entries) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(fileOut, crc));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(syncedAtMillis);
+                out.writeInt(entries.size());
+                for (CatalogEntry entry : entries) {
+                    writeEntry(out, entry);
+                }
+                out.flush();
+                new DataOutputStream(fileOut).writeLong(crc.getValue());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // MEMORY-MAP AND DECODE A SNAPSHOT, NULL IF IT IS MISSING, FROM ANOTHER FORMAT OR CORRUPT
+    public static Loaded read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 28 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, (int) size - 8));
+            if (crc.getValue() != buffer.getLong((int) size - 8)) {
+                return null;
+            }
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                return null;
+            }
+            long syncedAt = buffer.getLong();
+            int count = buffer.getInt();
+            List<CatalogEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(readEntry(buffer));
+            }
+            return new Loaded(syncedAt, entries);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream out, CatalogEntry entry) throws IOException {
+        out.writeInt(entry.getBookId());
+        writeString(out, entry.getTitle());
+        writeString(out, entry.getPublisher());
+        writeString(out, entry.getCategory());
+        out.writeInt(entry.getPublicationYear() != null ? entry.getPublicationYear() : NULL_INT);
+        BigDecimal price = entry.getSellingPrice();
+        if (price == null) {
+            out.writeByte(-1);
+        } else {
+            byte[] unscaled = price.unscaledValue().toByteArray();
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+            out.writeInt(price.scale());
+        }
+        writeString(out, entry.getIsbn());
+        out.writeLong(entry.getSold());
+        out.writeInt(entry.getAuthors().size());
+        for (String author : entry.getAuthors()) {
+            writeString(out, author);
+        }
+    }
+
+    private static CatalogEntry readEntry(ByteBuffer in) {
+        int bookId = in.getInt();
+        String title = readString(in);
+        String publisher = readString(in);
+        String category = readString(in);
+        int year = in.getInt();
+        BigDecimal price = null;
+        int priceLength = in.get();
+        if (priceLength >= 0) {
+            byte[] unscaled = new byte[priceLength];
+            in.get(unscaled);
+            price = new BigDecimal(new BigInteger(unscaled), in.getInt());
+        }
+        String isbn = readString(in);
+        long sold = in.getLong();
+        int authorCount = in.getInt();
+        List<String> authors = new ArrayList<>(authorCount);
+        for (int i = 0; i < authorCount; i++) {
+            authors.add(readString(in));
+        }
+        return new CatalogEntry(
+                bookId,
+                title,
+                publisher,
+                category,
+                year == NULL_INT ? null : year,
+                price,
+                isbn,
+                sold,
+                authors
+        );
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// SPARSE, SYMMETRIC COUNTS OF HOW OFTEN TWO BOOKS WERE BOUGHT IN THE SAME ORDER, PLUS THE
+// PRECOMPUTED TOP NEIGHBOURS OF EVERY BOOK. ONE ROW PER BOOK, EACH AN OPEN-ADDRESSING
+// int -> int TABLE. A SINGLE WRITER (THE REFRESH JOB) ADDS ORDERS AND PUBLISHES; READERS
+// ONLY EVER SEE PUBLISHED, IMMUTABLE NEIGHBOUR ARRAYS.
+public class CoPurchaseMatrix {
+
+    private static final int[] NONE = new int[0];
+
+    private final int neighbours;
+    private final Map<Integer, Row> rows = new HashMap<>();
+    private final Set<Integer> touched = new HashSet<>();
+    private final Map<Integer, int[]> top = new ConcurrentHashMap<>();
+
+    public CoPurchaseMatrix(int neighbours) {
+        this.neighbours = neighbours;
+    }
+
+    // COUNT EVERY PAIR OF DISTINCT BOOKS IN ONE ORDER
+    public void addOrder(int[] bookIds) {
+        for (int i = 0; i < bookIds.length; i++) {
+            for (int j = 0; j < bookIds.length; j++) {
+                if (bookIds[i] != bookIds[j]) {
+                    rows.computeIfAbsent(bookIds[i], id -> new Row()).increment(bookIds[j]);
+                }
+            }
+            touched.add(bookIds[i]);
+        }
+    }
+
+    // RECOMPUTE THE NEIGHBOUR LISTS OF THE BOOKS CHANGED SINCE THE LAST PUBLISH
+    public void publish() {
+        for (Integer bookId : touched) {
+            Row row = rows.get(bookId);
+            if (row != null) {
+                top.put(bookId, row.top(neighbours));
+            }
+        }
+        touched.clear();
+    }
+
+    // MOST CO-PURCHASED BOOKS FIRST
+    public int[] neighbours(int bookId) {
+        return top.getOrDefault(bookId, NONE);
+    }
+
+    private static final class Row {
+        private int[] keys = new int[8];
+        private int[] counts = new int[8];
+        private int size;
+
+        void increment(int key) {
+            if (size * 4 >= keys.length * 3) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        // HIGHEST COUNT FIRST, TIES BY LOWER BookID. KEY AND COUNT ARE PACKED SO ONE PRIMITIVE SORT DOES IT.
+        int[] top(int k) {
+            long[] packed = new long[size];
+            int n = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != 0) {
+                    packed[n++] = ((long) counts[slot] << 32) | (Integer.MAX_VALUE - keys[slot]);
+                }
+            }
+            Arrays.sort(packed);
+            int[] result = new int[Math.min(k, n)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = Integer.MAX_VALUE - (int) packed[n - 1 - i];
+            }
+            return result;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.bookstore.bookstore.utils.Money;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// COLUMN-ORIENTED COPY OF THE FILTERABLE BOOK FIELDS: ONE PRIMITIVE ARRAY PER COLUMN, ROW r
+// HOLDS BOOK ids[r]. CATEGORIES ARE DICTIONARY-ENCODED TO int CODES.
+//
+// RANGE FILTERS USE A SORTED SECONDARY INDEX (ROW NUMBERS ORDERED BY PRICE / BY YEAR) WHEN THE
+// RANGE IS SELECTIVE, OTHERWISE ONE BRANCH-FREE PASS OVER THE COLUMNS. A CHANGED BOOK GETS A
+// NEW ROW AT THE END AND ITS OLD ROW IS MARKED DEAD; ROWS PAST THE INDEXED PREFIX ARE ALWAYS
+// SCANNED, AND THE TABLE IS COMPACTED AND RE-SORTED ONCE THAT TAIL OR THE DEAD ROWS GROW.
+@Component
+public class ColumnarCatalog implements CatalogIndex {
+
+    static final short NO_YEAR = Short.MIN_VALUE;
+    static final long NO_PRICE = -1;
+    private static final int NO_CATEGORY = -1;
+    private static final int DEAD = -2;
+
+    private static final int MIN_TAIL = 1024;
+    // PRICES (CENTS, UP TO 2^34) AND ROW NUMBERS ARE PACKED INTO ONE long FOR SORTING
+    private static final int ROW_BITS = 29;
+
+    private int size;
+    private int[] ids = new int[0];
+    private long[] priceCents = new long[0];
+    private short[] years = new short[0];
+    private int[] categoryCodes = new int[0];
+    private final Map<Integer, Integer> rowByBookId = new HashMap<>();
+    private int deadRows;
+
+    // CATEGORY DICTIONARY (CASE-INSENSITIVE, SAME KEYS AS FacetIndex)
+    private final Map<String, Integer> categoryCodeByKey = new HashMap<>();
+
+    // SORTED INDEXES OVER ROWS [0, indexedRows): ROW NUMBERS AND THEIR KEYS IN KEY ORDER
+    private int indexedRows;
+    private int[] rowsByPrice = new int[0];
+    private long[] sortedPrices = new long[0];
+    private int[] rowsByYear = new int[0];
+    private short[] sortedYears = new short[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            deadRows = 0;
+            rowByBookId.clear();
+            categoryCodeByKey.clear();
+            grow(entries.size());
+            for (CatalogEntry entry : entries) {
+                append(entry);
+            }
+            compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            kill(entry.getBookId());
+            append(entry);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            kill(bookId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // BookIDS OF THE BOOKS MATCHING EVERY GIVEN FILTER (NULL = NO FILTER, BOUNDS INCLUSIVE)
+    public BitSet select(String category, Integer yearFrom, Integer yearTo, BigDecimal minPrice, BigDecimal maxPrice) {
+        boolean byYear = yearFrom != null || yearTo != null;
+        boolean byPrice = minPrice != null || maxPrice != null;
+
+        // EVERY FILTER BECOMES AN INCLUSIVE RANGE; "NO FILTER" RANGES ALSO ADMIT MISSING VALUES
+        short yearLo = byYear ? clampYear(yearFrom != null ? yearFrom : Integer.MIN_VALUE) : NO_YEAR;
+        short yearHi = byYear ? clampYear(yearTo != null ? yearTo : Integer.MAX_VALUE) : Short.MAX_VALUE;
+        long priceLo = byPrice ? Math.max(0, minPrice != null ? Money.toCents(minPrice, RoundingMode.CEILING) : 0) : Long.MIN_VALUE;
+        long priceHi = byPrice ? (maxPrice != null ? Money.toCents(maxPrice, RoundingMode.FLOOR) : Long.MAX_VALUE) : Long.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            int categoryLo = NO_CATEGORY;
+            int categoryHi = Integer.MAX_VALUE;
+            if (category != null && !category.isBlank()) {
+                Integer code = categoryCodeByKey.get(CatalogText.normalize(category));
+                if (code == null) {
+                    return new BitSet();
+                }
+                categoryLo = code;
+                categoryHi = code;
+            }
+
+            BitSet matches = new BitSet();
+            if (yearLo > yearHi || priceLo > priceHi) {
+                return matches;
+            }
+
+            // DRIVE FROM THE NARROWER INDEX RANGE WHEN IT IS SMALL, ELSE SCAN THE COLUMNS
+            int priceFrom = byPrice ? lowerBound(sortedPrices, priceLo) : 0;
+            int priceTo = byPrice ? upperBound(sortedPrices, priceHi) : indexedRows;
+            int yearFromIdx = byYear ? lowerBound(sortedYears, yearLo) : 0;
+            int yearToIdx = byYear ? upperBound(sortedYears, yearHi) : indexedRows;
+            int viaPrice = priceTo - priceFrom;
+            int viaYear = yearToIdx - yearFromIdx;
+            if (Math.min(viaPrice, viaYear) <= indexedRows / 8) {
+                int[] rows = viaPrice <= viaYear ? rowsByPrice : rowsByYear;
+                int from = viaPrice <= viaYear ? priceFrom : yearFromIdx;
+                int to = viaPrice <= viaYear ? priceTo : yearToIdx;
+                for (int i = from; i < to; i++) {
+                    int row = rows[i];
+                    if (matches(row, categoryLo, categoryHi, yearLo, yearHi, priceLo, priceHi)) {
+                        matches.set(ids[row]);
+                    }
+                }
+            } else {
+                scan(matches, 0, indexedRows, categoryLo, categoryHi, yearLo, yearHi, priceLo, priceHi);
+            }
+            scan(matches, indexedRows, size, categoryLo, categoryHi, yearLo, yearHi, priceLo, priceHi);
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // TIGHT LOOP OVER PRIMITIVE COLUMNS, NON-SHORT-CIRCUIT & KEEPS IT FREE OF A BRANCH PER PREDICATE
+    private void scan(BitSet matches, int from, int to, int categoryLo, int categoryHi,
+                      short yearLo, short yearHi, long priceLo, long priceHi) {
+        int[] codes = categoryCodes;
+        short[] yearColumn = years;
+        long[] priceColumn = priceCents;
+        for (int row = from; row < to; row++) {
+            int code = codes[row];
+            short year = yearColumn[row];
+            long price = priceColumn[row];
+            if (code >= categoryLo & code <= categoryHi
+                    & year >= yearLo & year <= yearHi
+                    & price >= priceLo & price <= priceHi) {
+                matches.set(ids[row]);
+            }
+        }
+    }
+
+    private boolean matches(int row, int categoryLo, int categoryHi,
+                            short yearLo, short yearHi, long priceLo, long priceHi) {
+        int code = categoryCodes[row];
+        return code >= categoryLo && code <= categoryHi
+                && years[row] >= yearLo && years[row] <= yearHi
+                && priceCents[row] >= priceLo && priceCents[row] <= priceHi;
+    }
+
+    private void append(CatalogEntry entry) {
+        if (size == ids.length) {
+            grow(Math.max(16, size * 2));
+        }
+        int row = size++;
+        ids[row] = entry.getBookId();
+        priceCents[row] = entry.getSellingPrice() != null
+                ? Money.of(entry.getSellingPrice()).cents()
+                : NO_PRICE;
+        years[row] = entry.getPublicationYear() != null ? clampYear(entry.getPublicationYear()) : NO_YEAR;
+        categoryCodes[row] = encodeCategory(entry.getCategory());
+        rowByBookId.put(entry.getBookId(), row);
+    }
+
+    private void kill(int bookId) {
+        Integer row = rowByBookId.remove(bookId);
+        if (row != null) {
+            categoryCodes[row] = DEAD;
+            deadRows++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        int tail = size - indexedRows;
+        if (tail > Math.max(MIN_TAIL, size / 16) || deadRows > Math.max(MIN_TAIL, size / 2)) {
+            compact();
+        }
+    }
+
+    // DROP DEAD ROWS AND RE-SORT BOTH INDEXES OVER ALL ROWS
+    private void compact() {
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (categoryCodes[row] == DEAD) {
+                continue;
+            }
+            ids[live] = ids[row];
+            priceCents[live] = priceCents[row];
+            years[live] = years[row];
+            categoryCodes[live] = categoryCodes[row];
+            rowByBookId.put(ids[live], live);
+            live++;
+        }
+        size = live;
+        deadRows = 0;
+        if (size >= 1 << ROW_BITS) {
+            throw new IllegalStateException("Catalog too large for the columnar index");
+        }
+
+        long[] packed = new long[size];
+        for (int row = 0; row < size; row++) {
+            packed[row] = ((priceCents[row] + 1) << ROW_BITS) | row;
+        }
+        Arrays.sort(packed);
+        rowsByPrice = new int[size];
+        sortedPrices = new long[size];
+        for (int i = 0; i < size; i++) {
+            rowsByPrice[i] = (int) (packed[i] & ((1L << ROW_BITS) - 1));
+            sortedPrices[i] = priceCents[rowsByPrice[i]];
+        }
+
+        for (int row = 0; row < size; row++) {
+            packed[row] = ((long) (years[row] - Short.MIN_VALUE) << ROW_BITS) | row;
+        }
+        Arrays.sort(packed);
+        rowsByYear = new int[size];
+        sortedYears = new short[size];
+        for (int i = 0; i < size; i++) {
+            rowsByYear[i] = (int) (packed[i] & ((1L << ROW_BITS) - 1));
+            sortedYears[i] = years[rowsByYear[i]];
+        }
+        indexedRows = size;
+    }
+
+    private void grow(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        ids = Arrays.copyOf(ids, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        years = Arrays.copyOf(years, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+    }
+
+    private int encodeCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return NO_CATEGORY;
+        }
+        return categoryCodeByKey.computeIfAbsent(CatalogText.normalize(category), key -> categoryCodeByKey.size());
+    }
+
+    private static short clampYear(int year) {
+        return (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, year));
+    }
+
+    // FIRST INDEX WITH keys[i] >= key
+    private int lowerBound(long[] keys, long key) {
+        int lo = 0;
+        int hi = indexedRows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // FIRST INDEX WITH keys[i] > key
+    private int upperBound(long[] keys, long key) {
+        int lo = 0;
+        int hi = indexedRows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int lowerBound(short[] keys, short key) {
+        int lo = 0;
+        int hi = indexedRows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int upperBound(short[] keys, short key) {
+        int lo = 0;
+        int hi = indexedRows;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,271 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.bookstore.bookstore.dtos.BookSearchCriteria;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// ONE BITMAP (BIT = BookID) PER CATEGORY, PUBLISHER, AUTHOR AND DECADE. FILTERS ARE
+// BITMAP INTERSECTIONS AND FACET COUNTS ARE INTERSECTION CARDINALITIES, COUNTED WORD BY WORD
+// WITHOUT BUILDING THE INTERSECTION. CATEGORY, YEAR AND PRICE FILTERS ARE EVALUATED BY THE
+// COLUMNAR CATALOG.
+@Component
+public class FacetIndex implements CatalogIndex {
+
+    private final ColumnarCatalog columnarCatalog;
+    private final BitSet live = new BitSet();
+    private final Facet categories = new Facet();
+    private final Facet publishers = new Facet();
+    private final Facet authors = new Facet();
+    private final Map<Integer, Bitmap> decades = new TreeMap<>();
+    private final Map<Integer, CatalogEntry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Result(int total, List<Integer> bookIds, Map<String, Integer> categories,
+                         Map<String, Integer> publishers, Map<String, Integer> decades) {
+    }
+
+    public FacetIndex(ColumnarCatalog columnarCatalog) {
+        this.columnarCatalog = columnarCatalog;
+    }
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> catalog) {
+        lock.writeLock().lock();
+        try {
+            live.clear();
+            categories.clear();
+            publishers.clear();
+            authors.clear();
+            decades.clear();
+            entries.clear();
+            for (CatalogEntry entry : catalog) {
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            delete(entry.getBookId());
+            add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            delete(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // BOOKS MATCHING EVERY GIVEN CRITERION, PAGED ON BookID, WITH FACET COUNTS OVER ALL MATCHES
+    public Result search(BookSearchCriteria criteria, int afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            andFacet(matches, publishers, criteria.getPublisher());
+            andFacet(matches, authors, criteria.getAuthor());
+            if (hasColumnFilter(criteria)) {
+                matches.and(columnarCatalog.select(
+                        criteria.getCategory(),
+                        criteria.getYearFrom(),
+                        criteria.getYearTo(),
+                        criteria.getMinPrice(),
+                        criteria.getMaxPrice()
+                ));
+            }
+
+            List<Integer> page = new ArrayList<>(Math.min(limit, 64));
+            for (int id = matches.nextSetBit(afterId + 1); id >= 0 && page.size() < limit; id = matches.nextSetBit(id + 1)) {
+                page.add(id);
+            }
+
+            long[] matchWords = matches.toLongArray();
+            Map<String, Integer> decadeCounts = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Bitmap> decade : decades.entrySet()) {
+                int count = decade.getValue().countIn(matchWords);
+                if (count > 0) {
+                    decadeCounts.put(decade.getKey() + "s", count);
+                }
+            }
+            return new Result(
+                    matches.cardinality(),
+                    page,
+                    categories.counts(matchWords),
+                    publishers.counts(matchWords),
+                    decadeCounts
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean hasColumnFilter(BookSearchCriteria criteria) {
+        return (criteria.getCategory() != null && !criteria.getCategory().isBlank())
+                || criteria.getYearFrom() != null || criteria.getYearTo() != null
+                || criteria.getMinPrice() != null || criteria.getMaxPrice() != null;
+    }
+
+    private void add(CatalogEntry entry) {
+        int id = entry.getBookId();
+        live.set(id);
+        entries.put(id, entry);
+        categories.add(entry.getCategory(), id);
+        publishers.add(entry.getPublisher(), id);
+        for (String author : entry.getAuthors()) {
+            authors.add(author, id);
+        }
+        Integer year = entry.getPublicationYear();
+        if (year != null) {
+            decades.computeIfAbsent(year / 10 * 10, d -> new Bitmap()).set(id);
+        }
+    }
+
+    private void delete(int bookId) {
+        CatalogEntry old = entries.remove(bookId);
+        if (old == null) {
+            return;
+        }
+        live.clear(bookId);
+        categories.remove(old.getCategory(), bookId);
+        publishers.remove(old.getPublisher(), bookId);
+        for (String author : old.getAuthors()) {
+            authors.remove(author, bookId);
+        }
+        if (old.getPublicationYear() != null) {
+            int decade = old.getPublicationYear() / 10 * 10;
+            Bitmap books = decades.get(decade);
+            if (books != null) {
+                books.clear(bookId);
+                if (books.isEmpty()) {
+                    decades.remove(decade);
+                }
+            }
+        }
+    }
+
+    private static void andFacet(BitSet matches, Facet facet, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        Bitmap books = facet.books(value);
+        if (books == null) {
+            matches.clear();
+        } else {
+            matches.and(books.toBitSet());
+        }
+    }
+
+    // GROWABLE long[] BITMAP, SO FACET COUNTS CAN READ ITS WORDS DIRECTLY
+    private static final class Bitmap {
+
+        private long[] words = new long[0];
+        private int cardinality;
+
+        void set(int bit) {
+            int word = bit >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+            }
+            if ((words[word] & 1L << bit) == 0) {
+                words[word] |= 1L << bit;
+                cardinality++;
+            }
+        }
+
+        void clear(int bit) {
+            int word = bit >>> 6;
+            if (word < words.length && (words[word] & 1L << bit) != 0) {
+                words[word] &= ~(1L << bit);
+                cardinality--;
+            }
+        }
+
+        boolean isEmpty() {
+            return cardinality == 0;
+        }
+
+        BitSet toBitSet() {
+            return BitSet.valueOf(words);
+        }
+
+        // SIZE OF THE INTERSECTION WITH matches (BitSet.toLongArray() LAYOUT)
+        int countIn(long[] matches) {
+            int length = Math.min(words.length, matches.length);
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                count += Long.bitCount(words[i] & matches[i]);
+            }
+            return count;
+        }
+    }
+
+    // VALUES ARE MATCHED CASE-INSENSITIVELY, COUNTS ARE REPORTED UNDER THE STORED SPELLING
+    private static final class Facet {
+
+        private final Map<String, Bitmap> books = new HashMap<>();
+        private final Map<String, String> labels = new HashMap<>();
+
+        void clear() {
+            books.clear();
+            labels.clear();
+        }
+
+        void add(String value, int bookId) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String key = CatalogText.normalize(value);
+            books.computeIfAbsent(key, k -> new Bitmap()).set(bookId);
+            labels.put(key, value);
+        }
+
+        void remove(String value, int bookId) {
+            if (value == null || value.isBlank()) {
+                return;
+            }
+            String key = CatalogText.normalize(value);
+            Bitmap set = books.get(key);
+            if (set != null) {
+                set.clear(bookId);
+                if (set.isEmpty()) {
+                    books.remove(key);
+                    labels.remove(key);
+                }
+            }
+        }
+
+        Bitmap books(String value) {
+            return books.get(CatalogText.normalize(value));
+        }
+
+        // LARGEST FACET VALUES FIRST
+        Map<String, Integer> counts(long[] matches) {
+            List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+            for (Map.Entry<String, Bitmap> entry : books.entrySet()) {
+                int count = entry.getValue().countIn(matches);
+                if (count > 0) {
+                    counts.add(Map.entry(labels.get(entry.getKey()), count));
+                }
+            }
+            counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : counts) {
+                result.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// TYPO-TOLERANT SEARCH OVER TITLES AND AUTHOR NAMES
+@Component
+public class FuzzySearchIndex implements CatalogIndex {
+
+    private final TrigramIndex titles = new TrigramIndex();
+    private final TrigramIndex authors = new TrigramIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final float minScore;
+    private final long budgetNanos;
+
+    public FuzzySearchIndex(@Value("${bookstore.catalog.fuzzy.min-score:0.3}") float minScore,
+                            @Value("${bookstore.catalog.fuzzy.budget-ms:20}") long budgetMillis) {
+        this.minScore = minScore;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    @Override
+    public void rebuild(Collection<CatalogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            titles.clear();
+            authors.clear();
+            for (CatalogEntry entry : entries) {
+                index(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(CatalogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            index(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            titles.remove(bookId);
+            authors.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // RANKED BOOK IDS (field = title | author | all), BEST MATCH FIRST
+    public List<Integer> search(String query, String field, int limit) {
+        boolean searchTitles = "title".equals(field) || "all".equals(field);
+        boolean searchAuthors = "author".equals(field) || "all".equals(field);
+        long deadline = System.nanoTime() + budgetNanos;
+
+        Map<Integer, Float> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            if (searchTitles) {
+                for (TrigramIndex.Match match : titles.search(query, limit, minScore, deadline)) {
+                    scores.merge(match.bookId(), match.score(), Math::max);
+                }
+            }
+            if (searchAuthors) {
+                for (TrigramIndex.Match match : authors.search(query, limit, minScore, deadline)) {
+                    scores.merge(match.bookId(), match.score(), Math::max);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed());
+        List<Integer> bookIds = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Map.Entry<Integer, Float> entry : ranked) {
+            if (bookIds.size() == limit) {
+                break;
+            }
+            bookIds.add(entry.getKey());
+        }
+        return bookIds;
+    }
+
+    private void index(CatalogEntry entry) {
+        titles.put(entry.getBookId(), List.of(entry.getTitle()));
+        authors.put(entry.getBookId(), entry.getAuthors());
+    }
+}
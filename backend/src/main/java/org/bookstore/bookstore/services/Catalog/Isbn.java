@@ -0,0 +1,61 @@
+package org.bookstore.bookstore.services.Catalog;
+
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    // STRIP HYPHENS AND SPACES AND MAP ISBN-10 TO ITS ISBN-13 FORM,
+    // SO "0-306-40615-2", "0306406152" AND "978-0-306-40615-7" ALL GIVE "9780306406157".
+    // ANYTHING THAT IS NOT A WELL-FORMED ISBN (INCLUDING AN ISBN-10 WITH A WRONG CHECK DIGIT)
+    // IS RETURNED UPPER-CASED WITHOUT SEPARATORS.
+    public static String normalize(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c != '-' && c != ' ') {
+                sb.append(Character.toUpperCase(c));
+            }
+        }
+        String compact = sb.toString();
+        if (isIsbn10(compact)) {
+            return toIsbn13(compact.substring(0, 9));
+        }
+        return compact;
+    }
+
+    // NINE DIGITS AND A CHECK DIGIT (0-9 OR X) SUCH THAT THE SUM OF digit * (10 - position) IS A MULTIPLE OF 11
+    private static boolean isIsbn10(String compact) {
+        if (compact.length() != 10) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = compact.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' && i == 9) {
+                digit = 10;
+            } else {
+                return false;
+            }
+            sum += digit * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    private static String toIsbn13(String isbn10Body) {
+        String body = "978" + isbn10Body;
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            int digit = body.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        int check = (10 - sum % 10) % 10;
+        return body + check;
+    }
+}
@@ -0,0 +1,257 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import java.util.*;
+
+// PREFIX DICTIONARY OF DISPLAY STRINGS (E.G. ALL AUTHOR NAMES), EACH WITH A POPULARITY WEIGHT.
+// EVERY STRING IS REACHABLE FROM THE START OF ANY OF ITS WORDS ("potter" FINDS "Harry Potter").
+//
+// MOST ENTRIES LIVE IN SORTED ARRAYS WITH A MAX-SEGMENT-TREE OVER THE WEIGHTS: A PREFIX IS A
+// CONTIGUOUS RANGE (TWO BINARY SEARCHES) AND ITS TOP k COSTS O(k log n). STRINGS CHANGED SINCE
+// THE LAST MERGE ARE SKIPPED THERE AND SERVED FROM A SMALL SORTED MAP INSTEAD, WHICH IS MERGED
+// BACK INTO THE ARRAYS ONCE IT GROWS. NOT THREAD-SAFE, THE OWNER LOCKS.
+class SuggestionDictionary {
+
+    private static final int MERGE_THRESHOLD = 4096;
+
+    private static final class Term {
+        private final String label;
+        private final String normalized;
+        private final List<String> keys;
+        private final Map<Integer, Long> books = new HashMap<>();
+        private long weight;
+
+        private Term(String label, String normalized) {
+            this.label = label;
+            this.normalized = normalized;
+            this.keys = wordStarts(normalized);
+        }
+    }
+
+    private record Candidate(int lo, int hi, int best) {
+    }
+
+    record Match(String label, long weight) {
+    }
+
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<Integer, List<Term>> termsByBook = new HashMap<>();
+
+    // MERGED PART: keys SORTED, keyTerms[i] OWNS keys[i], weights[i] IS ITS WEIGHT AT MERGE TIME
+    private String[] keys = new String[0];
+    private Term[] keyTerms = new Term[0];
+    private long[] weights = new long[0];
+    private int[] tree = new int[0];
+
+    // CHANGED SINCE THE MERGE
+    private final Set<Term> dirty = new HashSet<>();
+    private final TreeMap<String, List<Term>> pending = new TreeMap<>();
+
+    void clear() {
+        terms.clear();
+        termsByBook.clear();
+        dirty.clear();
+        pending.clear();
+        merge();
+    }
+
+    // ADD A BOOK'S STRINGS WITHOUT TRACKING CHANGES, CALL merge() AFTER THE LAST ONE
+    void load(int bookId, Collection<String> labels, long weight) {
+        add(bookId, labels, weight, false);
+    }
+
+    void put(int bookId, Collection<String> labels, long weight) {
+        remove(bookId);
+        add(bookId, labels, weight, true);
+        mergeIfLarge();
+    }
+
+    void remove(int bookId) {
+        List<Term> owned = termsByBook.remove(bookId);
+        if (owned == null) {
+            return;
+        }
+        for (Term term : owned) {
+            term.weight -= term.books.remove(bookId);
+            if (term.books.isEmpty()) {
+                terms.remove(term.normalized);
+            }
+            touch(term);
+        }
+        mergeIfLarge();
+    }
+
+    // UP TO limit STRINGS WITH A WORD STARTING WITH prefix (ALREADY normalizeLabel()ED), HEAVIEST FIRST
+    List<Match> top(String prefix, int limit) {
+        List<Term> found = new ArrayList<>();
+        Set<Term> seen = new HashSet<>();
+        String upper = prefix + Character.MAX_VALUE;
+
+        int lo = lowerBound(prefix);
+        int hi = lowerBound(upper);
+        if (lo < hi) {
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                    Comparator.comparingLong((Candidate c) -> -weights[c.best()]).thenComparingInt(Candidate::best)
+            );
+            queue.add(new Candidate(lo, hi, argmax(lo, hi)));
+            while (!queue.isEmpty() && found.size() < limit) {
+                Candidate c = queue.poll();
+                Term term = keyTerms[c.best()];
+                if (!dirty.contains(term) && seen.add(term)) {
+                    found.add(term);
+                }
+                if (c.lo() < c.best()) {
+                    queue.add(new Candidate(c.lo(), c.best(), argmax(c.lo(), c.best())));
+                }
+                if (c.best() + 1 < c.hi()) {
+                    queue.add(new Candidate(c.best() + 1, c.hi(), argmax(c.best() + 1, c.hi())));
+                }
+            }
+        }
+        for (List<Term> changed : pending.subMap(prefix, true, upper, false).values()) {
+            for (Term term : changed) {
+                if (seen.add(term)) {
+                    found.add(term);
+                }
+            }
+        }
+
+        found.sort(Comparator.comparingLong((Term t) -> -t.weight).thenComparing(t -> t.normalized));
+        List<Match> matches = new ArrayList<>(Math.min(limit, found.size()));
+        for (int i = 0; i < found.size() && i < limit; i++) {
+            matches.add(new Match(found.get(i).label, found.get(i).weight));
+        }
+        return matches;
+    }
+
+    // REBUILD THE ARRAYS FROM ALL LIVE STRINGS
+    void merge() {
+        List<Map.Entry<String, Term>> entries = new ArrayList<>();
+        for (Term term : terms.values()) {
+            for (String key : term.keys) {
+                entries.add(Map.entry(key, term));
+            }
+        }
+        entries.sort(Map.Entry.comparingByKey());
+
+        int n = entries.size();
+        keys = new String[n];
+        keyTerms = new Term[n];
+        weights = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = entries.get(i).getKey();
+            keyTerms[i] = entries.get(i).getValue();
+            weights[i] = keyTerms[i].weight;
+        }
+        // ITERATIVE SEGMENT TREE: LEAVES AT n..2n-1, EACH NODE HOLDS THE INDEX OF ITS HEAVIEST LEAF
+        tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            tree[i] = heavier(tree[2 * i], tree[2 * i + 1]);
+        }
+        dirty.clear();
+        pending.clear();
+    }
+
+    // NORMALIZED FORM USED FOR MATCHING: LOWER CASE, NO ACCENTS, SINGLE SPACES
+    static String normalizeLabel(String text) {
+        return CatalogText.normalize(text).trim().replaceAll("\\s+", " ");
+    }
+
+    private void add(int bookId, Collection<String> labels, long weight, boolean track) {
+        List<Term> owned = new ArrayList<>(labels.size());
+        for (String label : labels) {
+            String normalized = normalizeLabel(label);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            Term term = terms.computeIfAbsent(normalized, key -> new Term(label.trim(), key));
+            if (term.books.putIfAbsent(bookId, weight) != null) {
+                continue;
+            }
+            term.weight += weight;
+            owned.add(term);
+            if (track) {
+                touch(term);
+            }
+        }
+        if (!owned.isEmpty()) {
+            termsByBook.put(bookId, owned);
+        }
+    }
+
+    // THE ARRAYS HOLD A STALE WEIGHT FOR THIS STRING FROM NOW ON, SERVE IT FROM pending
+    private void touch(Term term) {
+        dirty.add(term);
+        boolean live = terms.get(term.normalized) == term;
+        for (String key : term.keys) {
+            List<Term> changed = pending.computeIfAbsent(key, k -> new ArrayList<>(1));
+            if (!live) {
+                changed.remove(term);
+                if (changed.isEmpty()) {
+                    pending.remove(key);
+                }
+            } else if (!changed.contains(term)) {
+                changed.add(term);
+            }
+        }
+    }
+
+    private void mergeIfLarge() {
+        if (dirty.size() > MERGE_THRESHOLD) {
+            merge();
+        }
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // INDEX OF THE HEAVIEST KEY IN [lo, hi)
+    private int argmax(int lo, int hi) {
+        int n = keys.length;
+        int best = lo;
+        for (int l = lo + n, r = hi + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = heavier(best, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = heavier(best, tree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private int heavier(int a, int b) {
+        if (weights[a] != weights[b]) {
+            return weights[a] > weights[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    // SUFFIXES OF THE NORMALIZED STRING THAT START A WORD
+    private static List<String> wordStarts(String normalized) {
+        List<String> starts = new ArrayList<>(4);
+        for (int i = 0; i < normalized.length(); i++) {
+            boolean wordChar = Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                starts.add(normalized.substring(i));
+            }
+        }
+        if (starts.isEmpty()) {
+            starts.add(normalized);
+        }
+        return starts;
+    }
+}
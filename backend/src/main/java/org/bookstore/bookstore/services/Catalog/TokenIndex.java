@@ -0,0 +1,70 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import java.util.*;
+
+// INVERTED INDEX: TOKEN -> SORTED BOOK IDS. NOT THREAD SAFE, CALLERS LOCK.
+class TokenIndex {
+
+    private final TreeMap<String, TreeSet<Integer>> postings = new TreeMap<>();
+    private final Map<Integer, Set<String>> tokensByBook = new HashMap<>();
+
+    void clear() {
+        postings.clear();
+        tokensByBook.clear();
+    }
+
+    void put(int bookId, Collection<String> texts) {
+        remove(bookId);
+        Set<String> tokens = new HashSet<>();
+        for (String text : texts) {
+            tokens.addAll(CatalogText.tokenize(text));
+        }
+        if (tokens.isEmpty()) {
+            return;
+        }
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new TreeSet<>()).add(bookId);
+        }
+        tokensByBook.put(bookId, tokens);
+    }
+
+    void remove(int bookId) {
+        Set<String> tokens = tokensByBook.remove(bookId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            TreeSet<Integer> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(bookId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    // EVERY QUERY TOKEN MUST BE A PREFIX OF SOME TOKEN OF THE BOOK
+    NavigableSet<Integer> search(String query) {
+        List<String> queryTokens = CatalogText.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new TreeSet<>();
+        }
+        TreeSet<Integer> result = null;
+        for (String queryToken : queryTokens) {
+            TreeSet<Integer> matches = new TreeSet<>();
+            for (TreeSet<Integer> ids : postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).values()) {
+                matches.addAll(ids);
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+}
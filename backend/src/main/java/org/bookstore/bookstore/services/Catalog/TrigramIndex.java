@@ -0,0 +1,257 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import java.util.*;
+
+// TRIGRAM SIMILARITY INDEX. EVERY INDEXED TEXT IS A DOCUMENT WITH A DENSE ORDINAL,
+// POSTING LISTS ARE GROWABLE int[] OF ORDINALS. NOT THREAD SAFE, CALLERS LOCK.
+class TrigramIndex {
+
+    private static final int DEAD = -1;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Integer, int[]> ordinalsByBook = new HashMap<>();
+    private int[] docBookIds = new int[1024];
+    private short[] docGramCounts = new short[1024];
+    private int docCount;
+    private int deadCount;
+
+    record Match(int bookId, float score) {
+    }
+
+    void clear() {
+        postings.clear();
+        ordinalsByBook.clear();
+        docBookIds = new int[1024];
+        docGramCounts = new short[1024];
+        docCount = 0;
+        deadCount = 0;
+    }
+
+    void put(int bookId, List<String> texts) {
+        remove(bookId);
+        int[] ordinals = new int[texts.size()];
+        int used = 0;
+        for (String text : texts) {
+            long[] grams = trigrams(text);
+            if (grams.length == 0) {
+                continue;
+            }
+            int ordinal = newDocument(bookId, grams.length);
+            for (long gram : grams) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+            }
+            ordinals[used++] = ordinal;
+        }
+        if (used > 0) {
+            ordinalsByBook.put(bookId, Arrays.copyOf(ordinals, used));
+        }
+    }
+
+    void remove(int bookId) {
+        int[] ordinals = ordinalsByBook.remove(bookId);
+        if (ordinals == null) {
+            return;
+        }
+        for (int ordinal : ordinals) {
+            docBookIds[ordinal] = DEAD;
+        }
+        deadCount += ordinals.length;
+        if (deadCount > 1024 && deadCount > docCount / 2) {
+            compact();
+        }
+    }
+
+    // BEST MATCH PER BOOK, HIGHEST SIMILARITY FIRST. THE RAREST TRIGRAMS ARE SCANNED FIRST,
+    // SO WHEN THE DEADLINE HITS THE PARTIAL SCORES STILL CARRY THE MOST SELECTIVE EVIDENCE.
+    List<Match> search(String query, int limit, float minScore, long deadlineNanos) {
+        long[] grams = trigrams(query);
+        if (grams.length == 0 || docCount == 0) {
+            return List.of();
+        }
+        List<Postings> lists = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        // SHARED-TRIGRAM COUNT PER CANDIDATE ORDINAL, SIZED BY THE CANDIDATES, NOT BY THE CATALOG
+        Counts common = new Counts();
+        for (Postings list : lists) {
+            int[] ordinals = list.ordinals;
+            for (int i = 0; i < list.size; i++) {
+                common.increment(ordinals[i]);
+            }
+            if (System.nanoTime() > deadlineNanos) {
+                break;
+            }
+        }
+
+        Map<Integer, Float> bestByBook = new HashMap<>();
+        for (int slot = 0; slot < common.keys.length; slot++) {
+            int ordinal = common.keys[slot] - 1;
+            if (ordinal < 0) {
+                continue;
+            }
+            int shared = common.counts[slot];
+            int bookId = docBookIds[ordinal];
+            if (bookId == DEAD) {
+                continue;
+            }
+            float score = (float) shared / (grams.length + docGramCounts[ordinal] - shared);
+            if (score >= minScore) {
+                bestByBook.merge(bookId, score, Math::max);
+            }
+        }
+
+        PriorityQueue<Match> top = new PriorityQueue<>(Comparator.comparingDouble(Match::score));
+        for (Map.Entry<Integer, Float> entry : bestByBook.entrySet()) {
+            top.offer(new Match(entry.getKey(), entry.getValue()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Match> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingDouble(Match::score).reversed());
+        return result;
+    }
+
+    // WORDS ARE PADDED WITH TWO LEADING AND ONE TRAILING BLANK, SO SHORT WORDS AND
+    // WORD STARTS STILL PRODUCE TRIGRAMS (SAME SCHEME AS POSTGRES pg_trgm)
+    static long[] trigrams(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String token : CatalogText.tokenize(text)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(((long) padded.charAt(i) << 32)
+                        | ((long) padded.charAt(i + 1) << 16)
+                        | padded.charAt(i + 2));
+            }
+        }
+        long[] result = new long[grams.size()];
+        int i = 0;
+        for (Long gram : grams) {
+            result[i++] = gram;
+        }
+        return result;
+    }
+
+    private int newDocument(int bookId, int gramCount) {
+        if (docCount == docBookIds.length) {
+            docBookIds = Arrays.copyOf(docBookIds, docCount * 2);
+            docGramCounts = Arrays.copyOf(docGramCounts, docCount * 2);
+        }
+        docBookIds[docCount] = bookId;
+        docGramCounts[docCount] = (short) Math.min(gramCount, Short.MAX_VALUE);
+        return docCount++;
+    }
+
+    // DROP DEAD ORDINALS AND RENUMBER THE LIVE ONES, KEEPING POSTINGS SORTED
+    private void compact() {
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int ordinal = 0; ordinal < docCount; ordinal++) {
+            if (docBookIds[ordinal] == DEAD) {
+                remap[ordinal] = DEAD;
+            } else {
+                remap[ordinal] = live;
+                docBookIds[live] = docBookIds[ordinal];
+                docGramCounts[live] = docGramCounts[ordinal];
+                live++;
+            }
+        }
+        docCount = live;
+        deadCount = 0;
+
+        Iterator<Postings> it = postings.values().iterator();
+        while (it.hasNext()) {
+            Postings list = it.next();
+            list.remap(remap);
+            if (list.size == 0) {
+                it.remove();
+            }
+        }
+        for (Map.Entry<Integer, int[]> entry : ordinalsByBook.entrySet()) {
+            int[] ordinals = entry.getValue();
+            for (int i = 0; i < ordinals.length; i++) {
+                ordinals[i] = remap[ordinals[i]];
+            }
+        }
+    }
+
+    // OPEN-ADDRESSING ordinal -> count MAP (LINEAR PROBING). KEYS ARE STORED AS ordinal + 1 SO THAT
+    // 0 MARKS AN EMPTY SLOT; DOUBLES ONCE HALF FULL.
+    private static final class Counts {
+
+        private int[] keys = new int[256];
+        private short[] counts = new short[256];
+        private int size;
+
+        void increment(int ordinal) {
+            int key = ordinal + 1;
+            int slot = find(keys, key);
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot]++;
+            if (size > keys.length >> 1) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            short[] oldCounts = counts;
+            keys = new int[oldKeys.length * 2];
+            counts = new short[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = find(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        // SLOT HOLDING key, OR THE EMPTY SLOT WHERE IT GOES
+        private static int find(int[] keys, int key) {
+            int mask = keys.length - 1;
+            int h = key * 0x9E3779B9;
+            int slot = (h ^ (h >>> 16)) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        void remap(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int mapped = remap[ordinals[i]];
+                if (mapped != DEAD) {
+                    ordinals[kept++] = mapped;
+                }
+            }
+            size = kept;
+            if (ordinals.length > 16 && size < ordinals.length / 4) {
+                ordinals = Arrays.copyOf(ordinals, Math.max(size, 4));
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.bookstore.bookstore.services;
+
+import org.bookstore.bookstore.repositories.CatalogExportRepository;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+@Service
+public class CatalogExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CatalogExportRepository catalogExportRepository;
+    private final ObjectMapper objectMapper;
+
+    public CatalogExportService(CatalogExportRepository catalogExportRepository, ObjectMapper objectMapper) {
+        this.catalogExportRepository = catalogExportRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // WRITE ONE JSON OBJECT PER LINE (NDJSON) STRAIGHT TO THE RESPONSE
+    public void exportBooks(OutputStream responseStream, LocalDateTime since, boolean gzip) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(responseStream, BUFFER_SIZE) : responseStream;
+        OutputStream out = new BufferedOutputStream(target, BUFFER_SIZE);
+        try {
+            catalogExportRepository.streamBooks(since, book -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(book));
+                    out.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        out.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+    }
+}
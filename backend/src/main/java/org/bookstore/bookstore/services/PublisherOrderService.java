@@ -1,6 +1,7 @@
 package org.bookstore.bookstore.services;
 
 import org.bookstore.bookstore.entities.PublisherOrder;
+import org.bookstore.bookstore.exceptions.BusinessException;
 import org.bookstore.bookstore.repositories.PublisherOrderRepository;
 import org.springframework.stereotype.Service;
 
@@ -10,9 +11,11 @@ import java.util.List;
 public class PublisherOrderService {
 
     private final PublisherOrderRepository publisherOrderRepository;
+    private final BookService bookService;
 
-    public PublisherOrderService(PublisherOrderRepository publisherOrderRepository) {
+    public PublisherOrderService(PublisherOrderRepository publisherOrderRepository, BookService bookService) {
         this.publisherOrderRepository = publisherOrderRepository;
+        this.bookService = bookService;
     }
 
     public void placeOrder(Integer bookId, Integer quantity) {
@@ -23,7 +26,13 @@ public class PublisherOrderService {
 
         System.out.println("in confirmation ");
 
+        PublisherOrder order = publisherOrderRepository.findById(orderId)
+                .orElseThrow(() -> new BusinessException("Publisher order not found"));
+
         publisherOrderRepository.confirmPublisherOrder(orderId);
+
+        // after_order_confirm ADDED THE ORDERED QUANTITY TO THE BOOK'S STOCK
+        bookService.stockChanged(order.getBook().getBookID());
     }
 
     public void deleteOrder(Integer orderId) {
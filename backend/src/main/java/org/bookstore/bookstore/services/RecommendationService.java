@@ -0,0 +1,125 @@
+package org.bookstore.bookstore.services;
+
+import org.bookstore.bookstore.dtos.BookResponse;
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.bookstore.bookstore.repositories.RecommendationRepository;
+import org.bookstore.bookstore.services.Catalog.CoPurchaseMatrix;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// "CUSTOMERS ALSO BOUGHT": A BACKGROUND JOB FOLDS NEW ORDERS INTO AN IN-MEMORY CO-PURCHASE
+// MATRIX; REQUESTS ONLY READ ITS PRECOMPUTED NEIGHBOUR LISTS AND NEVER QUERY THE ORDER TABLES.
+@Service
+public class RecommendationService {
+
+    private final RecommendationRepository recommendationRepository;
+    private final BookService bookService;
+    private final CoPurchaseMatrix matrix;
+    private final int neighbours;
+    private final int batchRows;
+    private final int maxItemsPerOrder;
+    private final int rescanOrders;
+
+    // HIGHEST CustomerOrderID ALREADY COUNTED. CONCURRENT CHECKOUTS CAN COMMIT A LOWER ID AFTER A
+    // HIGHER ONE WAS READ, SO EACH RUN RE-READS THE LAST rescanOrders IDS BELOW IT AND SKIPS THE
+    // ORDERS IN countedOrders (EVERY COUNTED ID INSIDE THAT WINDOW).
+    private int lastOrderId;
+    private final Set<Integer> countedOrders = new HashSet<>();
+
+    public RecommendationService(
+            RecommendationRepository recommendationRepository,
+            BookService bookService,
+            @Value("${bookstore.recommendations.neighbours:20}") int neighbours,
+            @Value("${bookstore.recommendations.batch-rows:10000}") int batchRows,
+            @Value("${bookstore.recommendations.max-items-per-order:50}") int maxItemsPerOrder,
+            @Value("${bookstore.recommendations.rescan-orders:1000}") int rescanOrders
+    ) {
+        this.recommendationRepository = recommendationRepository;
+        this.bookService = bookService;
+        this.matrix = new CoPurchaseMatrix(neighbours);
+        this.neighbours = neighbours;
+        this.batchRows = batchRows;
+        this.maxItemsPerOrder = maxItemsPerOrder;
+        this.rescanOrders = rescanOrders;
+    }
+
+    // READ THE ORDERS PLACED SINCE THE LAST RUN (PLUS THE RESCAN WINDOW), IN KEYSET BATCHES, THEN
+    // PUBLISH THE NEW NEIGHBOURS
+    @Scheduled(
+            initialDelayString = "${bookstore.recommendations.initial-delay-ms:10000}",
+            fixedDelayString = "${bookstore.recommendations.refresh-ms:60000}"
+    )
+    public synchronized void refresh() {
+        int after = Math.max(0, lastOrderId - rescanOrders);
+        while (true) {
+            List<int[]> rows = recommendationRepository.findOrderItemsAfter(after, batchRows);
+            if (rows.isEmpty()) {
+                break;
+            }
+            boolean full = rows.size() == batchRows;
+            int end = rows.size();
+            if (full && rows.get(0)[0] != rows.get(end - 1)[0]) {
+                // THE LAST ORDER MAY CONTINUE IN THE NEXT BATCH, LEAVE IT FOR THEN
+                int lastOrder = rows.get(end - 1)[0];
+                while (rows.get(end - 1)[0] == lastOrder) {
+                    end--;
+                }
+            }
+            addOrders(rows.subList(0, end));
+            after = rows.get(end - 1)[0];
+            lastOrderId = Math.max(lastOrderId, after);
+            if (!full) {
+                break;
+            }
+        }
+        int floor = lastOrderId - rescanOrders;
+        countedOrders.removeIf(orderId -> orderId <= floor);
+        matrix.publish();
+    }
+
+    // BOOKS MOST OFTEN BOUGHT TOGETHER WITH THE GIVEN ONE
+    public List<BookResponse> recommend(Integer bookId, Integer limit) {
+        if (limit != null && limit < 1) {
+            throw new BusinessException("Limit must be positive");
+        }
+        int[] ids = matrix.neighbours(bookId);
+        int size = Math.min(ids.length, limit == null ? neighbours : limit);
+        List<Integer> wanted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wanted.add(ids[i]);
+        }
+        if (wanted.isEmpty()) {
+            return List.of();
+        }
+        return bookService.findBooks(wanted, null).getBooks();
+    }
+
+    // ROWS ARE SORTED BY ORDER, EACH RUN OF EQUAL CustomerOrderID IS ONE ORDER
+    private void addOrders(List<int[]> rows) {
+        int start = 0;
+        while (start < rows.size()) {
+            int orderId = rows.get(start)[0];
+            int end = start;
+            while (end < rows.size() && rows.get(end)[0] == orderId) {
+                end++;
+            }
+            if (!countedOrders.add(orderId)) {
+                start = end;
+                continue;
+            }
+            // HUGE ORDERS (BULK PURCHASES) WOULD ADD A QUADRATIC NUMBER OF PAIRS FOR LITTLE SIGNAL
+            int[] books = new int[Math.min(end - start, maxItemsPerOrder)];
+            for (int i = 0; i < books.length; i++) {
+                books[i] = rows.get(start + i)[1];
+            }
+            matrix.addOrder(books);
+            start = end;
+        }
+    }
+}
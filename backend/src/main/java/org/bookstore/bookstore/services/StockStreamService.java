@@ -0,0 +1,162 @@
+package org.bookstore.bookstore.services;
+
+import org.bookstore.bookstore.dtos.BookStockLevel;
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.bookstore.bookstore.repositories.BookStockRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// LIVE STOCK LEVELS OVER SERVER-SENT EVENTS. WRITERS ONLY MARK BOOKS AS CHANGED (AFTER COMMIT);
+// A SCHEDULED FLUSH READS THE CURRENT STOCK OF THE CHANGED BOOKS SOMEONE WATCHES IN ONE QUERY
+// AND SENDS ONE EVENT PER BOOK, SO A BURST OF CHECKOUTS FOR ONE BOOK COSTS ONE EVENT.
+@Service
+public class StockStreamService {
+
+    private final BookStockRepository bookStockRepository;
+    private final int maxSubscribers;
+    private final int maxBooksPerSubscriber;
+    private final long timeoutMs;
+
+    // BookID -> OPEN STREAMS WATCHING IT. EMPTY SETS ARE REMOVED SO THE MAP ONLY HOLDS WATCHED BOOKS.
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+
+    private record Subscriber(SseEmitter emitter, Set<Integer> bookIds, AtomicBoolean closed) {
+    }
+
+    public StockStreamService(
+            BookStockRepository bookStockRepository,
+            @Value("${bookstore.stock-stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${bookstore.stock-stream.max-books-per-subscriber:100}") int maxBooksPerSubscriber,
+            @Value("${bookstore.stock-stream.timeout-ms:1800000}") long timeoutMs
+    ) {
+        this.bookStockRepository = bookStockRepository;
+        this.maxSubscribers = maxSubscribers;
+        this.maxBooksPerSubscriber = maxBooksPerSubscriber;
+        this.timeoutMs = timeoutMs;
+    }
+
+    // OPEN A STREAM FOR THE GIVEN BOOKS, THE FIRST EVENTS ARE THEIR CURRENT STOCK
+    public SseEmitter subscribe(List<Integer> ids) {
+        Set<Integer> bookIds = ids == null ? Set.of() : new TreeSet<>(ids.stream().filter(Objects::nonNull).toList());
+        if (bookIds.isEmpty()) {
+            throw new BusinessException("At least one book id is required");
+        }
+        if (bookIds.size() > maxBooksPerSubscriber) {
+            throw new BusinessException("At most " + maxBooksPerSubscriber + " books per stream");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new BusinessException("Too many open stock streams, try again later");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, bookIds, new AtomicBoolean());
+        for (Integer bookId : bookIds) {
+            subscribers.compute(bookId, (id, watching) -> {
+                Set<Subscriber> set = watching != null ? watching : ConcurrentHashMap.<Subscriber>newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        // REGISTERED BEFORE THE READ SO NO CHANGE FALLS BETWEEN THE TWO. IF THE READ FAILS THE EMITTER
+        // IS NEVER RETURNED AND NONE OF ITS CALLBACKS WILL FIRE, SO RELEASE THE SLOT HERE.
+        Map<Integer, Integer> stock;
+        try {
+            stock = bookStockRepository.findStock(bookIds);
+        } catch (RuntimeException ex) {
+            unsubscribe(subscriber);
+            throw ex;
+        }
+        for (Integer bookId : bookIds) {
+            if (stock.containsKey(bookId) && !send(subscriber, new BookStockLevel(bookId, stock.get(bookId)))) {
+                break;
+            }
+        }
+        return emitter;
+    }
+
+    // NumberOfBooks OF THESE BOOKS CHANGED AND IS COMMITTED
+    public void stockChanged(Collection<Integer> bookIds) {
+        for (Integer bookId : bookIds) {
+            if (bookId != null && subscribers.containsKey(bookId)) {
+                changed.add(bookId);
+            }
+        }
+    }
+
+    // ONE EVENT PER CHANGED BOOK WITH ITS LATEST STOCK
+    @Scheduled(fixedDelayString = "${bookstore.stock-stream.flush-ms:500}")
+    public void flush() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Integer> bookIds = new ArrayList<>(changed);
+        changed.removeAll(bookIds);
+        bookIds.removeIf(bookId -> !subscribers.containsKey(bookId));
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, Integer> stock = bookStockRepository.findStock(bookIds);
+        for (Integer bookId : bookIds) {
+            BookStockLevel level = new BookStockLevel(bookId, stock.get(bookId));
+            for (Subscriber subscriber : subscribers.getOrDefault(bookId, Set.of())) {
+                send(subscriber, level);
+            }
+        }
+    }
+
+    // PROXIES DROP IDLE CONNECTIONS, AND A FAILED WRITE IS THE ONLY WAY TO NOTICE A CLIENT THAT LEFT
+    @Scheduled(fixedDelayString = "${bookstore.stock-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<Subscriber> all = new HashSet<>();
+        for (Set<Subscriber> watching : subscribers.values()) {
+            all.addAll(watching);
+        }
+        for (Subscriber subscriber : all) {
+            try {
+                subscriber.emitter().send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException ex) {
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    private boolean send(Subscriber subscriber, BookStockLevel level) {
+        try {
+            subscriber.emitter().send(SseEmitter.event().name("stock").data(level));
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            unsubscribe(subscriber);
+            return false;
+        }
+    }
+
+    // CALLED FROM SEVERAL CALLBACKS FOR THE SAME STREAM, ONLY THE FIRST ONE COUNTS
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed().compareAndSet(false, true)) {
+            return;
+        }
+        for (Integer bookId : subscriber.bookIds()) {
+            subscribers.computeIfPresent(bookId, (id, watching) -> {
+                watching.remove(subscriber);
+                return watching.isEmpty() ? null : watching;
+            });
+        }
+        subscriberCount.decrementAndGet();
+        subscriber.emitter().complete();
+    }
+}
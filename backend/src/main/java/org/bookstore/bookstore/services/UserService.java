@@ -2,10 +2,10 @@ package org.bookstore.bookstore.services;
 
 
 import lombok.AllArgsConstructor;
-import org.bookstore.bookstore.Interfaces.CartItemRow;
 import org.bookstore.bookstore.dtos.*;
 import org.bookstore.bookstore.entities.User;
 import org.bookstore.bookstore.repositories.UserRepository;
+import org.bookstore.bookstore.services.Cart.CartReadModel;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -17,6 +17,7 @@ import java.util.*;
 @AllArgsConstructor
 public class UserService {
     private final  UserRepository userRepository;
+    private final CartReadModel cartReadModel;
 
     public Optional<User> findByEmail(String email)
     {
@@ -44,43 +45,13 @@ public class UserService {
 
         userRepository.save(user);
     }
+    // ONE USER HAS ONE CART, AN UNKNOWN cartId READS AS AN EMPTY CART
     public CartResponse getCartWithItems(Long userId, Long cartId) {
-
-        List<Object[]> rows =
-                userRepository.findCartItemsWithTotal(userId, cartId);
-
-        // Empty cart
-        if (rows.isEmpty()) {
+        CartResponse cart = cartReadModel.read(userId.intValue());
+        if (cart == null || !cart.getCartId().equals(cartId)) {
             return new CartResponse(cartId, BigDecimal.ZERO, List.of());
         }
-
-        // Cart-level data (same in all rows)
-        BigDecimal cartTotal = (BigDecimal) rows.get(0)[7];
-
-        List<CartItemDto> items = new ArrayList<>();
-
-        for (Object[] row : rows) {
-
-            Long bookId = ((Number) row[2]).longValue();
-            String title = (String) row[3];
-            BigDecimal price = (BigDecimal) row[5];
-            int quantity = ((Number) row[6]).intValue();
-
-            BigDecimal subTotal =
-                    price.multiply(BigDecimal.valueOf(quantity));
-
-            items.add(
-                    new CartItemDto(
-                            bookId,
-                            title,
-                            quantity,
-                            subTotal,
-                            price
-                    )
-            );
-        }
-
-        return new CartResponse(cartId, cartTotal, items);
+        return cart;
     }
 
         public OrderHistoryResponse getOrderHistory(Long userId) {
@@ -127,46 +98,12 @@ public class UserService {
 
 
 
+    // CARTS WITH AT LEAST ONE ITEM
     public List<CartResponse> getUserCarts(Integer userId) {
-
-        List<CartItemRow> rows =
-                userRepository.findCartItemsByCartId(userId);
-
-        Map<Long, CartResponse> cartMap = new LinkedHashMap<>();
-
-        for (CartItemRow row : rows) {
-
-            BigDecimal price = row.getSellingPrice();
-            int quantity = row.getQuantity();
-
-            BigDecimal subTotal =
-                    price.multiply(BigDecimal.valueOf(quantity));
-
-            CartResponse cart = cartMap.computeIfAbsent(
-                    row.getCartId(),
-                    id -> new CartResponse(id, BigDecimal.ZERO, new ArrayList<>())
-            );
-
-            cart.getItems().add(
-                    new CartItemDto(
-                            row.getBookId(),
-                            row.getTitle(),
-                            quantity,
-                            subTotal,
-                            price
-                    )
-            );
-
-            cart.setCartTotal(
-                    cart.getCartTotal().add(subTotal)
-            );
+        CartResponse cart = cartReadModel.read(userId);
+        if (cart == null || cart.getItems().isEmpty()) {
+            return List.of();
         }
-
-        return new ArrayList<>(cartMap.values());
+        return List.of(cart);
     }
-
-
-
-
-
 }
@@ -0,0 +1,42 @@
+package org.bookstore.bookstore.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// AN AMOUNT IN CENTS. PRICES ARE DECIMAL(10, 2) SO CENTS ARE EXACT, AND SUMS OF LINES STAY IN A long
+// INSTEAD OF A NEW BigDecimal PER ADDITION. CONVERT WITH toBigDecimal() ONLY WHERE THE AMOUNT LEAVES
+// THE APPLICATION (JSON, SQL PARAMETERS).
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    // NULL PRICES COUNT AS ZERO, LIKE AN UNPRICED BOOK IN A CART
+    public static Money of(BigDecimal amount) {
+        return amount == null ? ZERO : new Money(toCents(amount, RoundingMode.HALF_UP));
+    }
+
+    public static long toCents(BigDecimal amount, RoundingMode rounding) {
+        return amount.setScale(2, rounding).unscaledValue().longValueExact();
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(cents, (long) quantity));
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+}
@@ -0,0 +1,8 @@
+-- Seek indexes for the paginated catalog listing and category search.
+-- InnoDB appends the primary key (BookID) to every secondary index,
+-- so these also cover the "ORDER BY ..., BookID" tie-breaker.
+CREATE INDEX idx_books_title
+    ON Books (Title);
+
+CREATE INDEX idx_books_category
+    ON Books (Category);
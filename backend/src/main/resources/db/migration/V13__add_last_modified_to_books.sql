@@ -0,0 +1,7 @@
+-- Modification time for incremental catalog exports ("since" filter).
+ALTER TABLE Books
+    ADD COLUMN LastModified TIMESTAMP NOT NULL
+        DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_books_last_modified
+    ON Books (LastModified);
@@ -0,0 +1,82 @@
+-- Append-only log of catalog changes for the /books/changes delta sync.
+-- Filled by triggers so every writer is covered: BookService, bulk import and the stock triggers.
+CREATE TABLE BookChanges
+(
+    Seq        BIGINT AUTO_INCREMENT
+        PRIMARY KEY,
+    BookID     INT                                    NOT NULL,
+    ChangeType VARCHAR(10)                            NOT NULL, -- INSERT | UPDATE | RESTOCK | DELETE
+    ChangedAt  TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) NOT NULL
+);
+
+CREATE INDEX idx_book_changes_changed_at
+    ON BookChanges (ChangedAt);
+
+
+CREATE TRIGGER book_change_after_insert
+    AFTER INSERT
+    ON Books
+    FOR EACH ROW
+BEGIN
+    INSERT INTO BookChanges (BookID, ChangeType) VALUES (NEW.BookID, 'INSERT');
+END;
+
+
+-- RESTOCK = only NumberOfBooks changed, so clients can be sent the new stock instead of the whole book.
+CREATE TRIGGER book_change_after_update
+    AFTER UPDATE
+    ON Books
+    FOR EACH ROW
+BEGIN
+    IF NOT (OLD.ISBN <=> NEW.ISBN
+        AND OLD.Title <=> NEW.Title
+        AND OLD.PublicationYear <=> NEW.PublicationYear
+        AND OLD.SellingPrice <=> NEW.SellingPrice
+        AND OLD.Category <=> NEW.Category
+        AND OLD.MinimumQuantity <=> NEW.MinimumQuantity
+        AND OLD.PublisherID <=> NEW.PublisherID) THEN
+        INSERT INTO BookChanges (BookID, ChangeType) VALUES (NEW.BookID, 'UPDATE');
+    ELSEIF NOT (OLD.NumberOfBooks <=> NEW.NumberOfBooks) THEN
+        INSERT INTO BookChanges (BookID, ChangeType) VALUES (NEW.BookID, 'RESTOCK');
+    END IF;
+END;
+
+
+CREATE TRIGGER book_change_after_delete
+    AFTER DELETE
+    ON Books
+    FOR EACH ROW
+BEGIN
+    INSERT INTO BookChanges (BookID, ChangeType) VALUES (OLD.BookID, 'DELETE');
+END;
+
+
+-- Author links and publisher names are part of the book a client sees.
+CREATE TRIGGER book_change_after_author_insert
+    AFTER INSERT
+    ON BookAuthors
+    FOR EACH ROW
+BEGIN
+    INSERT INTO BookChanges (BookID, ChangeType) VALUES (NEW.BookID, 'UPDATE');
+END;
+
+
+CREATE TRIGGER book_change_after_author_delete
+    AFTER DELETE
+    ON BookAuthors
+    FOR EACH ROW
+BEGIN
+    INSERT INTO BookChanges (BookID, ChangeType) VALUES (OLD.BookID, 'UPDATE');
+END;
+
+
+CREATE TRIGGER book_change_after_publisher_update
+    AFTER UPDATE
+    ON Publishers
+    FOR EACH ROW
+BEGIN
+    IF NOT (OLD.Name <=> NEW.Name) THEN
+        INSERT INTO BookChanges (BookID, ChangeType)
+        SELECT BookID, 'UPDATE' FROM Books WHERE PublisherID = NEW.PublisherID;
+    END IF;
+END;
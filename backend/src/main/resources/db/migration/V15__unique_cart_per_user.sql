@@ -0,0 +1,18 @@
+-- One cart per user, so the cart id can be looked up (and cached) by user_id.
+-- Older rows may hold several carts for a user: move their items into the user's first cart
+-- and drop the others (CartItems of dropped carts go with them, ON DELETE CASCADE).
+INSERT INTO CartItems (cart_id, book_id, quantity)
+SELECT k.cart_id, i.book_id, i.quantity
+FROM CartItems i
+         JOIN Carts c ON c.cart_id = i.cart_id
+         JOIN (SELECT user_id, MIN(cart_id) AS cart_id FROM Carts GROUP BY user_id) k
+              ON k.user_id = c.user_id AND k.cart_id <> c.cart_id
+ON DUPLICATE KEY UPDATE quantity = CartItems.quantity + VALUES(quantity);
+
+DELETE c
+FROM Carts c
+         JOIN (SELECT user_id, MIN(cart_id) AS cart_id FROM Carts GROUP BY user_id) k
+              ON k.user_id = c.user_id AND k.cart_id <> c.cart_id;
+
+CREATE UNIQUE INDEX uq_carts_user_id
+    ON Carts (user_id);
@@ -0,0 +1,38 @@
+-- Last time a cart or its items changed, so abandoned carts can be found and removed.
+-- Existing carts start at the time of the migration and get a full TTL.
+ALTER TABLE Carts
+    ADD COLUMN last_modified TIMESTAMP NOT NULL
+        DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP;
+
+-- InnoDB appends cart_id, so this also serves the (last_modified, cart_id) seek of the sweeper.
+CREATE INDEX idx_carts_last_modified
+    ON Carts (last_modified);
+
+
+-- Every CartItems writer touches the cart: the JPA repository, the write-behind buffer and batch edits.
+-- Rows removed by the ON DELETE CASCADE of a deleted cart do not fire these (MySQL skips triggers on cascades).
+CREATE TRIGGER cart_touch_after_item_insert
+    AFTER INSERT
+    ON CartItems
+    FOR EACH ROW
+BEGIN
+    UPDATE Carts SET last_modified = CURRENT_TIMESTAMP WHERE cart_id = NEW.cart_id;
+END;
+
+
+CREATE TRIGGER cart_touch_after_item_update
+    AFTER UPDATE
+    ON CartItems
+    FOR EACH ROW
+BEGIN
+    UPDATE Carts SET last_modified = CURRENT_TIMESTAMP WHERE cart_id = NEW.cart_id;
+END;
+
+
+CREATE TRIGGER cart_touch_after_item_delete
+    AFTER DELETE
+    ON CartItems
+    FOR EACH ROW
+BEGIN
+    UPDATE Carts SET last_modified = CURRENT_TIMESTAMP WHERE cart_id = OLD.cart_id;
+END;
@@ -0,0 +1,29 @@
+-- Serve /books/changes in commit order. Seq is taken when a trigger inserts the row, so a long
+-- transaction can commit Seq 100 after Seq 101 was already served. A stamper numbers the rows it can
+-- see as committed with CommitSeq, under a lock on BookChangeCounter, and clients only ever read
+-- stamped rows in CommitSeq order. A row committed later always gets a higher CommitSeq.
+ALTER TABLE BookChanges
+    ADD COLUMN CommitSeq   BIGINT       NULL,
+    ADD COLUMN CommittedAt TIMESTAMP(3) NULL;
+
+-- Rows logged so far keep their number, so sequences clients already hold stay valid.
+UPDATE BookChanges
+SET CommitSeq   = Seq,
+    CommittedAt = ChangedAt;
+
+-- Unique, and NULLs (not stamped yet) come first, so this also finds the rows to stamp.
+CREATE UNIQUE INDEX idx_book_changes_commit_seq
+    ON BookChanges (CommitSeq);
+
+
+-- One row: the last CommitSeq handed out. Locking it serializes the stampers of every node.
+CREATE TABLE BookChangeCounter
+(
+    Id            TINYINT NOT NULL
+        PRIMARY KEY,
+    LastCommitSeq BIGINT  NOT NULL
+);
+
+INSERT INTO BookChangeCounter (Id, LastCommitSeq)
+SELECT 1, COALESCE(MAX(Seq), 0)
+FROM BookChanges;
@@ -0,0 +1,109 @@
+package org.bookstore.bookstore.services;
+
+import org.bookstore.bookstore.repositories.BookChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// RUNS AGAINST THE LOCAL MYSQL LIKE BookStoreApplicationTests. THE LOG ROWS ARE WRITTEN FOR BookIDs
+// NO BOOK HAS AND REMOVED AGAIN AFTERWARDS.
+@SpringBootTest
+class BookChangeServiceTest {
+
+    private static final int EARLY_BOOK = -1_000_001;
+    private static final int LATE_BOOK = -1_000_002;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookChangeRepository bookChangeRepository;
+
+    @Autowired
+    private BookChangeService bookChangeService;
+
+    @AfterEach
+    void removeTestRows() {
+        jdbcTemplate.update("DELETE FROM BookChanges WHERE BookID IN (?, ?)", EARLY_BOOK, LATE_BOOK);
+    }
+
+    @Test
+    void aChangeThatCommitsAfterAHigherSeqIsStillServed() throws SQLException {
+        bookChangeService.stampCommitted();
+        long start = bookChangeRepository.findLastSeq();
+
+        try (Connection slow = dataSource.getConnection(); Connection fast = dataSource.getConnection()) {
+            slow.setAutoCommit(false);
+            fast.setAutoCommit(false);
+
+            // THE SLOW TRANSACTION TAKES THE LOWER Seq BUT COMMITS LAST
+            long earlySeq = insertChange(slow, EARLY_BOOK);
+            long lateSeq = insertChange(fast, LATE_BOOK);
+            assertTrue(earlySeq < lateSeq);
+            fast.commit();
+
+            bookChangeService.stampCommitted();
+            List<BookChangeRepository.Change> first = testChangesAfter(start);
+            assertEquals(List.of(LATE_BOOK), bookIds(first));
+            long since = first.get(0).seq();
+
+            slow.commit();
+            bookChangeService.stampCommitted();
+            List<BookChangeRepository.Change> second = testChangesAfter(since);
+            assertEquals(List.of(EARLY_BOOK), bookIds(second));
+            assertTrue(second.get(0).seq() > since);
+        }
+    }
+
+    @Test
+    void uncommittedChangesAreNotServed() throws SQLException {
+        bookChangeService.stampCommitted();
+        long start = bookChangeRepository.findLastSeq();
+
+        try (Connection open = dataSource.getConnection()) {
+            open.setAutoCommit(false);
+            insertChange(open, EARLY_BOOK);
+
+            bookChangeService.stampCommitted();
+            assertEquals(List.of(), testChangesAfter(start));
+            open.rollback();
+        }
+        bookChangeService.stampCommitted();
+        assertEquals(List.of(), testChangesAfter(start));
+    }
+
+    // THE TRIGGERS' INSERT, ON A CONNECTION OF ITS OWN, RETURNS THE NEW Seq
+    private static long insertChange(Connection connection, int bookId) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO BookChanges (BookID, ChangeType) VALUES (?, 'UPDATE')", Statement.RETURN_GENERATED_KEYS)) {
+            insert.setInt(1, bookId);
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    // OTHER WRITERS MAY LOG REAL CHANGES WHILE THIS RUNS, ONLY THE TEST ROWS COUNT
+    private List<BookChangeRepository.Change> testChangesAfter(long since) {
+        return bookChangeRepository.findChangesAfter(since, 5000).stream()
+                .filter(change -> change.bookId() == EARLY_BOOK || change.bookId() == LATE_BOOK)
+                .toList();
+    }
+
+    private static List<Integer> bookIds(List<BookChangeRepository.Change> changes) {
+        return changes.stream().map(BookChangeRepository.Change::bookId).toList();
+    }
+}
@@ -0,0 +1,77 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.bookstore.bookstore.dtos.CartOperation;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartDraftTest {
+
+    @Test
+    void changesFoldIntoFinalQuantities() {
+        CartDraft draft = new CartDraft(1, Map.of(10L, 2, 20L, 1, 30L, 5));
+
+        draft.add(10L, 3);
+        draft.decrement(10L);
+        draft.decrement(20L);
+        draft.add(40L, 1);
+        draft.add(40L, 2);
+        draft.remove(30L);
+
+        Map<Long, Integer> expected = new HashMap<>();
+        expected.put(10L, 4);
+        expected.put(20L, null);
+        expected.put(30L, null);
+        expected.put(40L, 3);
+        assertEquals(expected, draft.changes());
+    }
+
+    @Test
+    void aBookRemovedAndAddedAgainIsWrittenWithItsNewQuantity() {
+        CartDraft draft = new CartDraft(1, Map.of(10L, 2));
+
+        draft.remove(10L);
+        draft.add(10L, 1);
+
+        assertEquals(Map.of(10L, 1), draft.changes());
+    }
+
+    @Test
+    void changesToBooksNotInTheCartLeaveItClean() {
+        CartDraft draft = new CartDraft(1, Map.of(10L, 2));
+
+        draft.decrement(99L);
+        draft.remove(99L);
+
+        assertFalse(draft.isDirty());
+        assertEquals(Map.of(), draft.changes());
+    }
+
+    @Test
+    void operationsApplyLikeTheSingleChanges() {
+        CartDraft draft = new CartDraft(1, Map.of(10L, 2));
+
+        draft.apply(operation("add", 10L, null));
+        draft.apply(operation("add", 20L, 4));
+        draft.apply(operation("decrement", 20L, null));
+        draft.apply(operation("remove", 10L, null));
+
+        Map<Long, Integer> expected = new HashMap<>();
+        expected.put(10L, null);
+        expected.put(20L, 3);
+        assertTrue(draft.isDirty());
+        assertEquals(expected, draft.changes());
+        assertThrows(IllegalArgumentException.class, () -> draft.apply(operation("clear", 10L, null)));
+    }
+
+    private static CartOperation operation(String op, Long bookId, Integer quantity) {
+        CartOperation operation = new CartOperation();
+        operation.setOp(op);
+        operation.setBookId(bookId);
+        operation.setQuantity(quantity);
+        return operation;
+    }
+}
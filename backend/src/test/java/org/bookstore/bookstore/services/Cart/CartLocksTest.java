@@ -0,0 +1,96 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartLocksTest {
+
+    @Test
+    void aLockedWriteMayCallAnotherForTheSameUser() {
+        CartLocks locks = new CartLocks(16, 100);
+
+        assertEquals("inner", locks.call(7, () -> locks.call(7, () -> "inner")));
+    }
+
+    @Test
+    void writesOfOneUserRunOneAtATime() throws Exception {
+        CartLocks locks = new CartLocks(16, 5000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        int[] counter = new int[1];
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                writes.add(pool.submit(() -> locks.run(42, () -> {
+                    mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    int read = counter[0];
+                    Thread.yield();
+                    counter[0] = read + 1;
+                    running.decrementAndGet();
+                })));
+            }
+            for (Future<?> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(200, counter[0]);
+        assertEquals(1, mostRunning.get());
+    }
+
+    @Test
+    void aWriteWaitingLongerThanTheTimeoutIsRefused() throws Exception {
+        CartLocks locks = new CartLocks(16, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> locks.run(7, () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holder.start();
+        try {
+            assertTrue(held.await(5, TimeUnit.SECONDS));
+            BusinessException refused = assertThrows(BusinessException.class, () -> locks.run(7, () -> fail("ran without the lock")));
+            assertEquals("Cart is busy, try again", refused.getMessage());
+        } finally {
+            release.countDown();
+            holder.join(5000);
+        }
+
+        // FREE AGAIN ONCE THE HOLDER IS DONE
+        assertEquals("free", locks.call(7, () -> "free"));
+    }
+
+    @Test
+    void aFailedWriteReleasesTheLock() throws Exception {
+        CartLocks locks = new CartLocks(1, 50);
+
+        assertThrows(IllegalStateException.class, () -> locks.run(7, () -> {
+            throw new IllegalStateException();
+        }));
+
+        // ANOTHER THREAD, SO REENTRANCY CANNOT HIDE A LOCK THAT WAS NEVER RELEASED
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals("free", other.submit(() -> locks.call(8, () -> "free")).get(5, TimeUnit.SECONDS));
+        } finally {
+            other.shutdownNow();
+        }
+    }
+}
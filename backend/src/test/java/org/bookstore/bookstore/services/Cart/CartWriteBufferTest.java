@@ -0,0 +1,153 @@
+package org.bookstore.bookstore.services.Cart;
+
+import org.bookstore.bookstore.repositories.CartBatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartWriteBufferTest {
+
+    private final FakeCartBatchRepository repository = new FakeCartBatchRepository();
+    private final CartWriteBuffer buffer = new CartWriteBuffer(repository, new NoTransactionManager(), true, 100);
+
+    @Test
+    void aFlushWritesTheFinalQuantities() {
+        repository.carts.put(1, new HashMap<>(Map.of(10L, 1)));
+
+        buffer.add(1, 10L, 2);
+        buffer.add(1, 20L, 1);
+        buffer.decrement(1, 20L);
+        buffer.flushAll();
+
+        assertEquals(Map.of(10L, 3), repository.carts.get(1));
+        assertFalse(buffer.hasPending(1));
+    }
+
+    @Test
+    void aTransientErrorKeepsTheDraftForTheNextFlush() {
+        buffer.add(1, 10L, 2);
+        repository.failures.put(1, new CannotAcquireLockException("Deadlock found when trying to get lock"));
+
+        assertThrows(CannotAcquireLockException.class, buffer::flushAll);
+        assertTrue(buffer.hasPending(1));
+        assertEquals(1L, stat("retriedCarts"));
+
+        repository.failures.clear();
+        buffer.add(1, 10L, 1);
+        buffer.flushAll();
+        assertEquals(Map.of(10L, 3), repository.carts.get(1));
+        assertFalse(buffer.hasPending(1));
+    }
+
+    @Test
+    void anUnreachableDatabaseKeepsTheDraft() {
+        buffer.add(1, 10L, 2);
+        repository.failures.put(1, new DataAccessResourceFailureException("Communications link failure"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> buffer.flush(1));
+        assertTrue(buffer.hasPending(1));
+        assertEquals(0L, stat("droppedCarts"));
+    }
+
+    @Test
+    void aNonTransientErrorDropsTheDraft() {
+        buffer.add(1, 10L, 2);
+        repository.failures.put(1, new DataIntegrityViolationException("Cannot add or update a child row"));
+
+        assertThrows(DataIntegrityViolationException.class, buffer::flushAll);
+        assertFalse(buffer.hasPending(1));
+        assertEquals(1L, stat("droppedCarts"));
+        assertEquals(1L, stat("lastDroppedCartId"));
+
+        // THE NEXT CHANGE READS THE CART AGAIN FROM THE DATABASE
+        repository.failures.clear();
+        buffer.add(1, 20L, 1);
+        buffer.flushAll();
+        assertEquals(Map.of(20L, 1), repository.carts.get(1));
+    }
+
+    @Test
+    void oneRejectedCartDoesNotBlockTheOthers() {
+        buffer.add(1, 10L, 1);
+        buffer.add(2, 10L, 1);
+        buffer.add(3, 10L, 1);
+        repository.failures.put(2, new DataIntegrityViolationException("Cannot add or update a child row"));
+
+        buffer.flushAll();
+
+        assertEquals(Map.of(10L, 1), repository.carts.get(1));
+        assertNull(repository.carts.get(2));
+        assertEquals(Map.of(10L, 1), repository.carts.get(3));
+        assertEquals(0L, stat("pendingCarts"));
+        assertEquals(2L, stat("lastDroppedCartId"));
+    }
+
+    private long stat(String name) {
+        return buffer.stats().get(name);
+    }
+
+    // CartItems IN MEMORY. A BATCH THAT TOUCHES A CART WITH A QUEUED FAILURE WRITES NOTHING, LIKE A
+    // ROLLED BACK TRANSACTION
+    private static final class FakeCartBatchRepository extends CartBatchRepository {
+
+        private final Map<Integer, Map<Long, Integer>> carts = new HashMap<>();
+        private final Map<Integer, DataAccessException> failures = new HashMap<>();
+
+        private FakeCartBatchRepository() {
+            super(null);
+        }
+
+        @Override
+        public Map<Long, Integer> findItems(int cartId) {
+            return new HashMap<>(carts.getOrDefault(cartId, Map.of()));
+        }
+
+        @Override
+        public Map<Long, Integer> lockItems(int cartId) {
+            return findItems(cartId);
+        }
+
+        @Override
+        public void writeItems(List<ItemWrite> writes) {
+            for (ItemWrite write : writes) {
+                if (failures.containsKey(write.cartId())) {
+                    throw failures.get(write.cartId());
+                }
+            }
+            for (ItemWrite write : writes) {
+                Map<Long, Integer> items = carts.computeIfAbsent(write.cartId(), id -> new HashMap<>());
+                if (write.quantity() == null) {
+                    items.remove(write.bookId());
+                } else {
+                    items.put(write.bookId(), write.quantity());
+                }
+            }
+        }
+    }
+
+    private static final class NoTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
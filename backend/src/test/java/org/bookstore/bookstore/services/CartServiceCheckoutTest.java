@@ -0,0 +1,128 @@
+package org.bookstore.bookstore.services;
+
+import org.bookstore.bookstore.dtos.CheckoutRequest;
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// RUNS AGAINST THE LOCAL MYSQL LIKE BookStoreApplicationTests. EVERY TEST GETS A USER, A PUBLISHER
+// AND TWO BOOKS OF ITS OWN, REMOVED AGAIN AFTERWARDS WITH EVERYTHING A CHECKOUT WRITES FOR THEM.
+@SpringBootTest
+class CartServiceCheckoutTest {
+
+    private static final int STOCK = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CartService cartService;
+
+    private int userId;
+    private int publisherId;
+    private int firstBook;
+    private int secondBook;
+
+    @BeforeEach
+    void createTestRows() {
+        String name = "checkout-test-" + UUID.randomUUID();
+        userId = insert("""
+                INSERT INTO Users (Username, Password, Email, Role, email_verified, Enabled)
+                VALUES (?, 'x', ?, 'CUSTOMER', 1, 1)""", name, name + "@example.com");
+        publisherId = insert("INSERT INTO Publishers (Name) VALUES (?)", name);
+        firstBook = insertBook(name + " first");
+        secondBook = insertBook(name + " second");
+    }
+
+    @AfterEach
+    void removeTestRows() {
+        jdbcTemplate.update("DELETE FROM Carts WHERE user_id = ?", userId);
+        jdbcTemplate.update("""
+                DELETE oi FROM CustomerOrderItems oi
+                JOIN CustomerOrders o ON o.CustomerOrderID = oi.CustomerOrderID
+                WHERE o.UserID = ?""", userId);
+        jdbcTemplate.update("DELETE FROM CustomerOrders WHERE UserID = ?", userId);
+        jdbcTemplate.update("DELETE FROM BillingInfos WHERE UserID = ?", userId);
+        jdbcTemplate.update("DELETE FROM PublisherOrders WHERE BookID IN (?, ?)", firstBook, secondBook);
+        jdbcTemplate.update("DELETE FROM Books WHERE BookID IN (?, ?)", firstBook, secondBook);
+        jdbcTemplate.update("DELETE FROM BookChanges WHERE BookID IN (?, ?)", firstBook, secondBook);
+        jdbcTemplate.update("DELETE FROM Publishers WHERE PublisherID = ?", publisherId);
+        jdbcTemplate.update("DELETE FROM Users WHERE UserID = ?", userId);
+    }
+
+    @Test
+    void aCoveredCartIsCheckedOut() {
+        cartService.addToCart(userId, firstBook, 2);
+        cartService.addToCart(userId, secondBook, STOCK);
+
+        cartService.checkoutCart(userId, card());
+
+        assertEquals("3", stock(firstBook));
+        assertEquals("0", stock(secondBook));
+        assertEquals("1", count("SELECT COUNT(*) FROM CustomerOrders WHERE UserID = ?"));
+        assertEquals("0", count("SELECT COUNT(*) FROM CartItems ci JOIN Carts c ON c.cart_id = ci.cart_id WHERE c.user_id = ?"));
+    }
+
+    @Test
+    void aShortLineRollsBackTheWholeCheckout() {
+        cartService.addToCart(userId, firstBook, 2);
+        cartService.addToCart(userId, secondBook, STOCK + 1);
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> cartService.checkoutCart(userId, card()));
+        assertEquals("number of book is not sufficient", ex.getMessage());
+
+        // NOTHING OF THE CHECKOUT SURVIVES: NO STOCK TAKEN, NO ORDER, NO BILLING INFO, CART UNTOUCHED
+        assertEquals(String.valueOf(STOCK), stock(firstBook));
+        assertEquals(String.valueOf(STOCK), stock(secondBook));
+        assertEquals("0", count("SELECT COUNT(*) FROM CustomerOrders WHERE UserID = ?"));
+        assertEquals("0", count("SELECT COUNT(*) FROM BillingInfos WHERE UserID = ?"));
+        assertEquals("2", count("SELECT COUNT(*) FROM CartItems ci JOIN Carts c ON c.cart_id = ci.cart_id WHERE c.user_id = ?"));
+    }
+
+    private static CheckoutRequest card() {
+        CheckoutRequest card = new CheckoutRequest();
+        card.setCardNumber("4111111111111111");
+        card.setCardHolderName("Checkout Test");
+        card.setExpirationDate("12/99");
+        card.setCvv("123");
+        return card;
+    }
+
+    private int insertBook(String title) {
+        return insert("""
+                INSERT INTO Books (Title, SellingPrice, NumberOfBooks, MinimumQuantity, PublisherID)
+                VALUES (?, 10.00, ?, 0, ?)""", title, STOCK, publisherId);
+    }
+
+    private int insert(String sql, Object... args) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keys);
+        return keys.getKey().intValue();
+    }
+
+    private String stock(int bookId) {
+        return String.valueOf(jdbcTemplate.queryForObject("SELECT NumberOfBooks FROM Books WHERE BookID = ?", Integer.class, bookId));
+    }
+
+    private String count(String sql) {
+        return String.valueOf(jdbcTemplate.queryForObject(sql, Long.class, userId));
+    }
+}
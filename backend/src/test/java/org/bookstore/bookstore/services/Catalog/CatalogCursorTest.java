@@ -0,0 +1,49 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.bookstore.bookstore.exceptions.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogCursorTest {
+
+    @Test
+    void roundTripsTheLastRow() {
+        CatalogCursor cursor = CatalogCursor.decode(new CatalogCursor("title", 42, "Dune\nPart 2").encode(), "title");
+
+        assertEquals("title", cursor.getSort());
+        assertEquals(42, cursor.getLastId());
+        // ONLY THE FIRST TWO LINE BREAKS SEPARATE FIELDS, THE TITLE KEEPS ITS OWN
+        assertEquals("Dune\nPart 2", cursor.getLastTitle());
+    }
+
+    @Test
+    void noTokenIsTheFirstPage() {
+        CatalogCursor cursor = CatalogCursor.decode(null, "id");
+
+        assertEquals(0, cursor.getLastId());
+        assertEquals("", CatalogCursor.decode(" ", "title").getLastTitle());
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherSort() {
+        String token = new CatalogCursor("id", 42, null).encode();
+
+        assertThrows(BusinessException.class, () -> CatalogCursor.decode(token, "title"));
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        assertThrows(BusinessException.class, () -> CatalogCursor.decode("not base64!", "id"));
+        assertThrows(BusinessException.class, () -> CatalogCursor.decode(encode("id\nforty-two\n"), "id"));
+        assertThrows(BusinessException.class, () -> CatalogCursor.decode(encode("id\n42"), "id"));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
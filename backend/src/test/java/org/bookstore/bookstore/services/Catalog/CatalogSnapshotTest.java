@@ -0,0 +1,82 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void entriesSurviveAWriteAndRead() throws IOException {
+        Path file = dir.resolve("catalog.snapshot");
+        List<CatalogEntry> entries = List.of(
+                new CatalogEntry(1, "Les Mis\u00e9rables", "Penguin", "Fiction", 1862, new BigDecimal("12.50"),
+                        "9780140444308", 42, List.of("Victor Hugo")),
+                new CatalogEntry(7, "Untitled", "Vintage", null, null, null, null, 0, List.of()),
+                new CatalogEntry(9, "Pricey", "Tor", "Science", 2020, new BigDecimal("123456789.99"),
+                        "9780306406157", Long.MAX_VALUE, List.of("A", "B"))
+        );
+
+        CatalogSnapshot.write(file, 1_700_000_000_123L, entries);
+        CatalogSnapshot.Loaded loaded = CatalogSnapshot.read(file);
+
+        assertEquals(1_700_000_000_123L, loaded.syncedAtMillis());
+        assertEquals(entries.size(), loaded.entries().size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertSameEntry(entries.get(i), loaded.entries().get(i));
+        }
+        assertEquals(List.of("catalog.snapshot"), Files.list(dir).map(path -> path.getFileName().toString()).toList());
+    }
+
+    @Test
+    void aTruncatedFileReadsAsNoSnapshot() throws IOException {
+        Path file = dir.resolve("catalog.snapshot");
+        CatalogSnapshot.write(file, 1L, List.of(
+                new CatalogEntry(1, "Title", "Penguin", "Fiction", 2000, new BigDecimal("9.99"), "isbn", 0, List.of("Ann"))
+        ));
+        byte[] bytes = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertNull(CatalogSnapshot.read(file));
+
+        Files.write(file, Arrays.copyOf(bytes, 20));
+        assertNull(CatalogSnapshot.read(file));
+    }
+
+    @Test
+    void aCorruptedOrMissingFileReadsAsNoSnapshot() throws IOException {
+        Path file = dir.resolve("catalog.snapshot");
+        assertNull(CatalogSnapshot.read(file));
+
+        CatalogSnapshot.write(file, 1L, List.of(
+                new CatalogEntry(1, "Title", "Penguin", "Fiction", 2000, new BigDecimal("9.99"), "isbn", 0, List.of("Ann"))
+        ));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[30] ^= 1;
+        Files.write(file, bytes);
+        assertNull(CatalogSnapshot.read(file));
+    }
+
+    private static void assertSameEntry(CatalogEntry expected, CatalogEntry actual) {
+        assertEquals(expected.getBookId(), actual.getBookId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getPublisher(), actual.getPublisher());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getPublicationYear(), actual.getPublicationYear());
+        assertEquals(expected.getSellingPrice(), actual.getSellingPrice());
+        assertEquals(expected.getIsbn(), actual.getIsbn());
+        assertEquals(expected.getSold(), actual.getSold());
+        assertEquals(expected.getAuthors(), actual.getAuthors());
+    }
+}
@@ -0,0 +1,67 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class CoPurchaseMatrixTest {
+
+    @Test
+    void neighboursAreMostCoPurchasedFirstWithTiesByLowerBookId() {
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(3);
+        matrix.addOrder(new int[]{1, 2, 3});
+        matrix.addOrder(new int[]{1, 3});
+        matrix.addOrder(new int[]{1, 4});
+        matrix.addOrder(new int[]{1, 5, 3});
+        matrix.publish();
+
+        assertArrayEquals(new int[]{3, 2, 4}, matrix.neighbours(1));
+        assertArrayEquals(new int[]{1, 2, 5}, matrix.neighbours(3));
+        assertArrayEquals(new int[]{1}, matrix.neighbours(4));
+        assertArrayEquals(new int[0], matrix.neighbours(99));
+    }
+
+    @Test
+    void ordersAreOnlyVisibleAfterPublish() {
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(5);
+        matrix.addOrder(new int[]{1, 2});
+        matrix.publish();
+        matrix.addOrder(new int[]{1, 3});
+        matrix.addOrder(new int[]{1, 3});
+
+        assertArrayEquals(new int[]{2}, matrix.neighbours(1));
+        matrix.publish();
+        assertArrayEquals(new int[]{3, 2}, matrix.neighbours(1));
+        assertArrayEquals(new int[]{1}, matrix.neighbours(3));
+    }
+
+    @Test
+    void neighboursMatchBruteForceOnRandomOrders() {
+        Random random = new Random(5);
+        CoPurchaseMatrix matrix = new CoPurchaseMatrix(10);
+        Map<Integer, Map<Integer, Integer>> counts = new HashMap<>();
+        for (int order = 0; order < 20000; order++) {
+            int[] bookIds = random.ints(1, 500).distinct().limit(1 + random.nextInt(5)).toArray();
+            matrix.addOrder(bookIds);
+            for (int a : bookIds) {
+                for (int b : bookIds) {
+                    if (a != b) {
+                        counts.computeIfAbsent(a, id -> new HashMap<>()).merge(b, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+        matrix.publish();
+
+        for (int bookId = 1; bookId < 500; bookId++) {
+            int[] expected = counts.getOrDefault(bookId, Map.of()).entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(10)
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+            assertArrayEquals(expected, matrix.neighbours(bookId));
+        }
+    }
+}
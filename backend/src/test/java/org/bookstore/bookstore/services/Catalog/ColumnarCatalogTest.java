@@ -0,0 +1,166 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// select() AGAINST A BRUTE-FORCE FILTER OVER THE SAME BOOKS, INCLUDING BOOKS WITHOUT PRICE, YEAR OR
+// CATEGORY AND ROWS KILLED BY UPDATES AND REMOVALS BEFORE AND AFTER A COMPACTION
+class ColumnarCatalogTest {
+
+    private static final String[] CATEGORIES = {"Fiction", "fiction", "Science", "History", "Poetry", null, " "};
+    private static final Map<String, String> NORMALIZED = new HashMap<>();
+
+    @Test
+    void missingValuesOnlyMatchWithoutThatFilter() {
+        ColumnarCatalog catalog = new ColumnarCatalog();
+        catalog.rebuild(List.of(
+                entry(1, "Fiction", 2001, "10.00"),
+                entry(2, "Fiction", null, "10.00"),
+                entry(3, "Fiction", 2001, null),
+                entry(4, null, 2001, "10.00")
+        ));
+
+        assertEquals(ids(1, 2, 3, 4), catalog.select(null, null, null, null, null));
+        assertEquals(ids(1, 3, 4), catalog.select(null, 1900, null, null, null));
+        assertEquals(ids(1, 2, 4), catalog.select(null, null, null, null, new BigDecimal("100")));
+        // A ZERO LOWER BOUND STILL EXCLUDES BOOKS WITHOUT A PRICE
+        assertEquals(ids(1, 2, 4), catalog.select(null, null, null, BigDecimal.ZERO, null));
+        assertEquals(ids(1, 2, 3), catalog.select("FICTION", null, null, null, null));
+        assertEquals(ids(), catalog.select("Unknown", null, null, null, null));
+    }
+
+    @Test
+    void boundsAreInclusiveAndRoundedInward() {
+        ColumnarCatalog catalog = new ColumnarCatalog();
+        catalog.rebuild(List.of(
+                entry(1, "Fiction", 2000, "9.99"),
+                entry(2, "Fiction", 2001, "10.00"),
+                entry(3, "Fiction", 2002, "10.01")
+        ));
+
+        assertEquals(ids(2), catalog.select(null, 2001, 2001, null, null));
+        assertEquals(ids(2), catalog.select(null, null, null, new BigDecimal("10.00"), new BigDecimal("10.00")));
+        assertEquals(ids(3), catalog.select(null, null, null, new BigDecimal("10.001"), null));
+        assertEquals(ids(1), catalog.select(null, null, null, null, new BigDecimal("9.999")));
+        assertEquals(ids(), catalog.select(null, 2002, 2000, null, null));
+    }
+
+    @Test
+    void updatedAndRemovedBooksLeaveNoDeadRowsBehind() {
+        ColumnarCatalog catalog = new ColumnarCatalog();
+        catalog.rebuild(List.of(entry(1, "Fiction", 2001, "10.00"), entry(2, "Science", 2001, "10.00")));
+
+        catalog.put(entry(1, "History", 1990, "50.00"));
+        catalog.remove(2);
+
+        assertEquals(ids(), catalog.select("Fiction", null, null, null, null));
+        assertEquals(ids(), catalog.select("Science", null, null, null, null));
+        assertEquals(ids(1), catalog.select("History", 1990, 1990, new BigDecimal("50"), new BigDecimal("50")));
+        assertEquals(ids(1), catalog.select(null, null, null, null, null));
+    }
+
+    @Test
+    void matchesBruteForceUnderInterleavedUpdates() {
+        Random random = new Random(42);
+        Map<Integer, CatalogEntry> books = new HashMap<>();
+        for (int bookId = 1; bookId <= 100_000; bookId++) {
+            books.put(bookId, randomEntry(random, bookId));
+        }
+        ColumnarCatalog catalog = new ColumnarCatalog();
+        catalog.rebuild(books.values());
+
+        for (int round = 0; round < 20; round++) {
+            // ENOUGH CHANGES TO CROSS THE COMPACTION THRESHOLDS EVERY FEW ROUNDS
+            for (int i = 0; i < 4_000; i++) {
+                int bookId = 1 + random.nextInt(110_000);
+                if (random.nextInt(4) == 0) {
+                    books.remove(bookId);
+                    catalog.remove(bookId);
+                } else {
+                    CatalogEntry entry = randomEntry(random, bookId);
+                    books.put(bookId, entry);
+                    catalog.put(entry);
+                }
+            }
+            for (int query = 0; query < 10; query++) {
+                String category = random.nextInt(3) == 0 ? null : CATEGORIES[random.nextInt(CATEGORIES.length - 2)];
+                Integer yearFrom = random.nextBoolean() ? null : 1950 + random.nextInt(80);
+                Integer yearTo = random.nextBoolean() ? null : 1950 + random.nextInt(80);
+                // NARROW AND WIDE RANGES, SO BOTH THE INDEX SEEK AND THE COLUMN SCAN ARE USED
+                BigDecimal minPrice = random.nextBoolean() ? null : price(random);
+                BigDecimal maxPrice = random.nextBoolean() ? null : minPrice != null && random.nextBoolean()
+                        ? minPrice.add(BigDecimal.ONE)
+                        : price(random);
+
+                assertEquals(
+                        bruteForce(books.values(), category, yearFrom, yearTo, minPrice, maxPrice),
+                        catalog.select(category, yearFrom, yearTo, minPrice, maxPrice),
+                        "round " + round + ": " + category + " " + yearFrom + ".." + yearTo + " " + minPrice + ".." + maxPrice
+                );
+            }
+        }
+        assertEquals(books.size(), catalog.select(null, null, null, null, null).cardinality());
+    }
+
+    private static BitSet bruteForce(Collection<CatalogEntry> books, String category, Integer yearFrom, Integer yearTo,
+                                     BigDecimal minPrice, BigDecimal maxPrice) {
+        BitSet matches = new BitSet();
+        for (CatalogEntry book : books) {
+            if (category != null && !category.isBlank()
+                    && (book.getCategory() == null || book.getCategory().isBlank()
+                    || !normalize(book.getCategory()).equals(normalize(category)))) {
+                continue;
+            }
+            if (yearFrom != null || yearTo != null) {
+                Integer year = book.getPublicationYear();
+                if (year == null || (yearFrom != null && year < yearFrom) || (yearTo != null && year > yearTo)) {
+                    continue;
+                }
+            }
+            if (minPrice != null || maxPrice != null) {
+                BigDecimal price = book.getSellingPrice();
+                if (price == null || (minPrice != null && price.compareTo(minPrice) < 0)
+                        || (maxPrice != null && price.compareTo(maxPrice) > 0)) {
+                    continue;
+                }
+            }
+            matches.set(book.getBookId());
+        }
+        return matches;
+    }
+
+    private static String normalize(String category) {
+        return NORMALIZED.computeIfAbsent(category, CatalogText::normalize);
+    }
+
+    private static CatalogEntry randomEntry(Random random, int bookId) {
+        return entry(
+                bookId,
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                random.nextInt(20) == 0 ? null : 1950 + random.nextInt(80),
+                random.nextInt(20) == 0 ? null : price(random).toPlainString()
+        );
+    }
+
+    private static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(random.nextInt(20_000), 2).setScale(2, RoundingMode.UNNECESSARY);
+    }
+
+    private static CatalogEntry entry(int bookId, String category, Integer year, String price) {
+        return new CatalogEntry(bookId, "Title " + bookId, "Publisher", category, year,
+                price == null ? null : new BigDecimal(price), "isbn-" + bookId, 0, List.of());
+    }
+
+    private static BitSet ids(int... bookIds) {
+        BitSet set = new BitSet();
+        for (int bookId : bookIds) {
+            set.set(bookId);
+        }
+        return set;
+    }
+}
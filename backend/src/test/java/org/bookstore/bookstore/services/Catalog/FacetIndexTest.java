@@ -0,0 +1,110 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.bookstore.bookstore.dtos.BookSearchCriteria;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FacetIndexTest {
+
+    @Test
+    void countsEveryFacetOverAllMatches() {
+        FacetIndex index = index(
+                entry(1, "Fiction", "Penguin", 1995, "Ann"),
+                entry(2, "fiction", "Penguin", 2001, "Ann", "Bob"),
+                entry(3, "Science", "Vintage", 2005, "Bob"),
+                entry(4, null, "Vintage", null)
+        );
+
+        FacetIndex.Result result = index.search(new BookSearchCriteria(), 0, 10);
+
+        assertEquals(4, result.total());
+        assertEquals(List.of(1, 2, 3, 4), result.bookIds());
+        assertEquals(List.of(2, 1), List.copyOf(result.categories().values()));
+        assertEquals(Integer.valueOf(1), result.categories().get("Science"));
+        assertEquals(Map.of("Penguin", 2, "Vintage", 2), result.publishers());
+        assertEquals(Map.of("1990s", 1, "2000s", 2), result.decades());
+    }
+
+    @Test
+    void filtersNarrowTheCountsAndThePage() {
+        FacetIndex index = index(
+                entry(1, "Fiction", "Penguin", 1995, "Ann"),
+                entry(2, "Fiction", "Penguin", 2001, "Ann", "Bob"),
+                entry(3, "Science", "Vintage", 2005, "Bob")
+        );
+        BookSearchCriteria byBob = new BookSearchCriteria();
+        byBob.setAuthor("BOB");
+
+        FacetIndex.Result result = index.search(byBob, 0, 1);
+
+        assertEquals(2, result.total());
+        assertEquals(List.of(2), result.bookIds());
+        assertEquals(List.of(3), index.search(byBob, 2, 1).bookIds());
+        assertEquals(Map.of("Penguin", 1, "Vintage", 1), result.publishers());
+
+        BookSearchCriteria unknown = new BookSearchCriteria();
+        unknown.setPublisher("Nobody");
+        assertEquals(0, index.search(unknown, 0, 10).total());
+    }
+
+    @Test
+    void updatedAndRemovedBooksLeaveTheirOldFacets() {
+        FacetIndex index = index(entry(1, "Fiction", "Penguin", 1995, "Ann"), entry(2, "Fiction", "Vintage", 1995));
+
+        index.put(entry(1, "Science", "Vintage", 2010, "Ann"));
+        index.remove(2);
+
+        FacetIndex.Result result = index.search(new BookSearchCriteria(), 0, 10);
+        assertEquals(Map.of("Science", 1), result.categories());
+        assertEquals(Map.of("Vintage", 1), result.publishers());
+        assertEquals(Map.of("2010s", 1), result.decades());
+    }
+
+    @Test
+    void countsMatchBruteForceOnASparseCatalog() {
+        Random random = new Random(3);
+        String[] publishers = {"Penguin", "Vintage", "Tor", "Orbit", "Gollancz"};
+        List<CatalogEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            // SPREAD OUT IDS, SO THE BITMAPS HAVE DIFFERENT LENGTHS AND EMPTY WORDS
+            int bookId = 1 + i * 7 + random.nextInt(7);
+            entries.add(entry(bookId, "Fiction", publishers[random.nextInt(publishers.length)],
+                    1950 + random.nextInt(70), "Author " + random.nextInt(50)));
+        }
+        FacetIndex index = index(entries.toArray(CatalogEntry[]::new));
+        BookSearchCriteria criteria = new BookSearchCriteria();
+        criteria.setAuthor("Author 7");
+        criteria.setYearFrom(1970);
+
+        Map<String, Integer> publisherCounts = new HashMap<>();
+        Map<String, Integer> decadeCounts = new HashMap<>();
+        for (CatalogEntry entry : entries) {
+            if (entry.getAuthors().contains("Author 7") && entry.getPublicationYear() >= 1970) {
+                publisherCounts.merge(entry.getPublisher(), 1, Integer::sum);
+                decadeCounts.merge(entry.getPublicationYear() / 10 * 10 + "s", 1, Integer::sum);
+            }
+        }
+
+        FacetIndex.Result result = index.search(criteria, 0, 10);
+        assertEquals(publisherCounts, result.publishers());
+        assertEquals(decadeCounts, result.decades());
+        assertEquals(publisherCounts.values().stream().mapToInt(Integer::intValue).sum(), result.total());
+    }
+
+    private static FacetIndex index(CatalogEntry... entries) {
+        ColumnarCatalog columnarCatalog = new ColumnarCatalog();
+        FacetIndex index = new FacetIndex(columnarCatalog);
+        columnarCatalog.rebuild(List.of(entries));
+        index.rebuild(List.of(entries));
+        return index;
+    }
+
+    private static CatalogEntry entry(int bookId, String category, String publisher, Integer year, String... authors) {
+        return new CatalogEntry(bookId, "Title " + bookId, publisher, category, year, new BigDecimal("10.00"),
+                "isbn-" + bookId, 0, List.of(authors));
+    }
+}
@@ -0,0 +1,36 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IsbnTest {
+
+    @Test
+    void isbn10AndIsbn13SpellingsNormalizeToTheSameKey() {
+        assertEquals("9780306406157", Isbn.normalize("0-306-40615-2"));
+        assertEquals("9780306406157", Isbn.normalize("0306406152"));
+        assertEquals("9780306406157", Isbn.normalize("978-0-306-40615-7"));
+        assertEquals("9780306406157", Isbn.normalize(" 978 0306406157 "));
+    }
+
+    @Test
+    void isbn10CheckDigitXIsAccepted() {
+        assertEquals("9780804429573", Isbn.normalize("0-8044-2957-X"));
+        assertEquals("9780804429573", Isbn.normalize("080442957x"));
+    }
+
+    @Test
+    void isbn10WithABadCheckDigitIsNotConverted() {
+        assertEquals("0306406153", Isbn.normalize("0-306-40615-3"));
+        assertEquals("030640615X", Isbn.normalize("0-306-40615-X"));
+    }
+
+    @Test
+    void anythingElseIsOnlyCompactedAndUpperCased() {
+        assertEquals("AB12", Isbn.normalize("ab-12"));
+        assertEquals("", Isbn.normalize(" - "));
+        assertNull(Isbn.normalize(null));
+    }
+}
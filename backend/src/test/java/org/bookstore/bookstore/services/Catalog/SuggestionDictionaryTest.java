@@ -0,0 +1,101 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SuggestionDictionaryTest {
+
+    @Test
+    void topReturnsTheHeaviestStringsForAPrefix() {
+        SuggestionDictionary dictionary = new SuggestionDictionary();
+        dictionary.load(1, List.of("Harry Potter"), 50);
+        dictionary.load(2, List.of("Harriet Beecher"), 10);
+        dictionary.load(3, List.of("Harold Pinter"), 30);
+        dictionary.load(4, List.of("Jane Austen"), 90);
+        dictionary.merge();
+
+        assertEquals(List.of(new SuggestionDictionary.Match("Harry Potter", 50), new SuggestionDictionary.Match("Harold Pinter", 30)),
+                dictionary.top("har", 2));
+        assertEquals(List.of("Harry Potter"), labels(dictionary.top("pot", 5)));
+        assertEquals(List.of(), dictionary.top("xyz", 5));
+    }
+
+    @Test
+    void weightsOfOneStringAddUpOverItsBooks() {
+        SuggestionDictionary dictionary = new SuggestionDictionary();
+        dictionary.load(1, List.of("Tolkien"), 5);
+        dictionary.load(2, List.of("tolkien"), 5);
+        dictionary.load(3, List.of("Tolstoy"), 8);
+        dictionary.merge();
+
+        assertEquals(List.of(new SuggestionDictionary.Match("Tolkien", 10), new SuggestionDictionary.Match("Tolstoy", 8)),
+                dictionary.top(SuggestionDictionary.normalizeLabel("T\u00d3L"), 10));
+    }
+
+    @Test
+    void changesAfterTheMergeAreServedBeforeTheNextOne() {
+        SuggestionDictionary dictionary = new SuggestionDictionary();
+        dictionary.load(1, List.of("Stephen King"), 100);
+        dictionary.load(2, List.of("Stephen Fry"), 10);
+        dictionary.merge();
+
+        dictionary.put(2, List.of("Stephen Fry"), 500);
+        dictionary.put(3, List.of("Stephenie Meyer"), 50);
+        dictionary.remove(1);
+
+        assertEquals(List.of("Stephen Fry", "Stephenie Meyer"), labels(dictionary.top("steph", 10)));
+        assertEquals(List.of(), dictionary.top("king", 10));
+    }
+
+    @Test
+    void topMatchesBruteForceAcrossUpdatesAndMerges() {
+        Random random = new Random(11);
+        String[] words = {"anna", "anne", "annie", "bob", "bobby", "carl", "carla", "carol"};
+        SuggestionDictionary dictionary = new SuggestionDictionary();
+        Map<Integer, String> labelByBook = new HashMap<>();
+        Map<Integer, Long> weightByBook = new HashMap<>();
+
+        for (int step = 0; step < 20000; step++) {
+            int bookId = random.nextInt(3000);
+            if (random.nextInt(5) == 0) {
+                dictionary.remove(bookId);
+                labelByBook.remove(bookId);
+                weightByBook.remove(bookId);
+            } else {
+                String label = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                long weight = random.nextInt(1000);
+                dictionary.put(bookId, List.of(label), weight);
+                labelByBook.put(bookId, label);
+                weightByBook.put(bookId, weight);
+            }
+            if (step % 997 == 0) {
+                for (String prefix : List.of("ann", "bob", "car", "carl")) {
+                    assertEquals(bruteForce(labelByBook, weightByBook, prefix, 5), dictionary.top(prefix, 5), prefix);
+                }
+            }
+        }
+    }
+
+    private static List<SuggestionDictionary.Match> bruteForce(Map<Integer, String> labelByBook, Map<Integer, Long> weightByBook,
+                                                               String prefix, int limit) {
+        Map<String, Long> weights = new HashMap<>();
+        for (Map.Entry<Integer, String> entry : labelByBook.entrySet()) {
+            String label = entry.getValue();
+            if (label.startsWith(prefix) || label.contains(" " + prefix)) {
+                weights.merge(label, weightByBook.get(entry.getKey()), Long::sum);
+            }
+        }
+        return weights.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(entry -> new SuggestionDictionary.Match(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static List<String> labels(List<SuggestionDictionary.Match> matches) {
+        return matches.stream().map(SuggestionDictionary.Match::label).toList();
+    }
+}
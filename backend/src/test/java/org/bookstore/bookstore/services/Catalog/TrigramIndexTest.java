@@ -0,0 +1,99 @@
+package org.bookstore.bookstore.services.Catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    @Test
+    void ranksTyposBySimilarity() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, List.of("Harry Potter"));
+        index.put(2, List.of("Harriet the Spy"));
+        index.put(3, List.of("War and Peace"));
+
+        List<TrigramIndex.Match> matches = index.search("hary poter", 10, 0.1f, NO_DEADLINE);
+
+        assertEquals(1, matches.get(0).bookId());
+        assertTrue(matches.stream().noneMatch(match -> match.bookId() == 3));
+        assertEquals(1.0f, index.search("HARRY POTTER", 1, 0.1f, NO_DEADLINE).get(0).score());
+    }
+
+    @Test
+    void keepsTheBestTextOfEachBook() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(1, List.of("Completely Unrelated", "Dune"));
+
+        List<TrigramIndex.Match> matches = index.search("dune", 10, 0.1f, NO_DEADLINE);
+
+        assertEquals(1, matches.size());
+        assertEquals(1.0f, matches.get(0).score());
+    }
+
+    @Test
+    void removedAndReplacedBooksAreNotFound() {
+        TrigramIndex index = new TrigramIndex();
+        for (int bookId = 1; bookId <= 3000; bookId++) {
+            index.put(bookId, List.of("Dune " + bookId));
+        }
+        // ENOUGH REMOVALS TO COMPACT THE ORDINALS
+        for (int bookId = 1; bookId <= 2500; bookId++) {
+            index.remove(bookId);
+        }
+        index.put(2600, List.of("Foundation"));
+
+        List<TrigramIndex.Match> matches = index.search("dune", 5000, 0.01f, NO_DEADLINE);
+
+        assertEquals(499, matches.size());
+        assertTrue(matches.stream().allMatch(match -> match.bookId() > 2500 && match.bookId() != 2600));
+        assertEquals(2600, index.search("foundation", 1, 0.5f, NO_DEADLINE).get(0).bookId());
+    }
+
+    @Test
+    void scoresMatchJaccardSimilarityOverManyCandidates() {
+        Random random = new Random(7);
+        String[] words = {"the", "dark", "tower", "night", "circus", "garden", "stone", "river", "song", "ice", "fire"};
+        Map<Integer, String> titles = new HashMap<>();
+        TrigramIndex index = new TrigramIndex();
+        for (int bookId = 1; bookId <= 5000; bookId++) {
+            String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            titles.put(bookId, title);
+            index.put(bookId, List.of(title));
+        }
+
+        String query = "dark rivers";
+        Map<Integer, Float> expected = new HashMap<>();
+        for (Map.Entry<Integer, String> title : titles.entrySet()) {
+            float score = jaccard(TrigramIndex.trigrams(query), TrigramIndex.trigrams(title.getValue()));
+            if (score >= 0.05f) {
+                expected.put(title.getKey(), score);
+            }
+        }
+
+        Map<Integer, Float> actual = new HashMap<>();
+        for (TrigramIndex.Match match : index.search(query, Integer.MAX_VALUE, 0.05f, NO_DEADLINE)) {
+            actual.put(match.bookId(), match.score());
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static float jaccard(long[] a, long[] b) {
+        Set<Long> left = new HashSet<>();
+        for (long gram : a) {
+            left.add(gram);
+        }
+        int shared = 0;
+        for (long gram : b) {
+            if (left.contains(gram)) {
+                shared++;
+            }
+        }
+        return (float) shared / (a.length + b.length - shared);
+    }
+}
@@ -0,0 +1,68 @@
+package org.bookstore.bookstore.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void ofRoundsHalfUpToCents() {
+        assertEquals(new Money(1999), Money.of(new BigDecimal("19.99")));
+        assertEquals(new Money(1000), Money.of(new BigDecimal("10")));
+        assertEquals(new Money(1235), Money.of(new BigDecimal("12.345")));
+        assertEquals(new Money(1234), Money.of(new BigDecimal("12.3449")));
+        assertEquals(new Money(-1235), Money.of(new BigDecimal("-12.345")));
+    }
+
+    @Test
+    void aNullPriceIsZero() {
+        assertEquals(Money.ZERO, Money.of(null));
+        assertFalse(Money.of(null).isPositive());
+    }
+
+    @Test
+    void toCentsUsesTheGivenRounding() {
+        assertEquals(1234L, Money.toCents(new BigDecimal("12.345"), RoundingMode.DOWN));
+        assertThrows(ArithmeticException.class, () -> Money.toCents(new BigDecimal("12.345"), RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> Money.toCents(new BigDecimal("1e30"), RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void timesAndPlusAreExact() {
+        Money price = Money.of(new BigDecimal("19.99"));
+
+        assertEquals(new Money(5997), price.times(3));
+        assertEquals(new Money(6997), price.times(3).plus(Money.of(new BigDecimal("10.00"))));
+        assertEquals(Money.ZERO, price.times(0));
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrappingAround() {
+        Money large = new Money(Long.MAX_VALUE / 2 + 1);
+
+        assertThrows(ArithmeticException.class, () -> large.times(2));
+        assertThrows(ArithmeticException.class, () -> large.plus(large));
+        assertThrows(ArithmeticException.class, () -> new Money(Long.MIN_VALUE).plus(new Money(-1)));
+    }
+
+    @Test
+    void toBigDecimalHasScaleTwo() {
+        BigDecimal amount = Money.of(new BigDecimal("10")).toBigDecimal();
+
+        assertEquals(new BigDecimal("10.00"), amount);
+        assertEquals(2, amount.scale());
+        assertEquals(new BigDecimal("0.00"), Money.ZERO.toBigDecimal());
+        assertEquals(new BigDecimal("-0.05"), new Money(-5).toBigDecimal());
+    }
+
+    @Test
+    void amountsCompareByCents() {
+        assertTrue(new Money(100).compareTo(new Money(99)) > 0);
+        assertEquals(0, Money.of(new BigDecimal("1.0")).compareTo(Money.of(new BigDecimal("1.00"))));
+        assertTrue(new Money(1).isPositive());
+    }
+}